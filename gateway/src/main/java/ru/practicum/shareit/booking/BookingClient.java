@@ -2,14 +2,17 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -17,57 +20,51 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .build()
         );
     }
 
-    public ResponseEntity<Object> bookItem(Long userId, BookItemRequestDto requestDto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> bookItem(Long userId, BookItemRequestDto requestDto) {
         return post("", userId, requestDto);
     }
 
-    public ResponseEntity<Object> updateBooking(Long userId, Long id, Boolean approved) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateBooking(Long userId, Long id, Boolean approved) {
         return patch("/" + id + "?approved=" + approved, userId.longValue());
     }
 
-    public ResponseEntity<Object> getBooking(Long userId, Long bookingId) {
-        return get("/" + bookingId, userId);
+    public Mono<ResponseEntity<byte[]>> getBooking(Long userId, Long bookingId, String ifNoneMatch) {
+        return conditionalGet("/" + bookingId, userId, ifNoneMatch);
     }
 
-    public ResponseEntity<Object> getBookings(Long userId, String state, Long from, Long size) {
-        if (from != null && size != null && state != null) {
-            Map<String, Object> parameters = Map.of(
-                    "state", state,
-                    "from", from,
-                    "size", size
-            );
-            return get("?state={state}&from={from}&size={size}", userId, parameters);
-        }
-        if (state != null) {
-            return get("?state=" + state, userId);
-        } else {
-            return get("", userId);
-        }
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBookings(Long userId, String state, Long from, Long size, String cursor) {
+        return getPage("", userId, state, from, size, cursor);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBookingsOwner(Long userId, String state, Long from, Long size, String cursor) {
+        return getPage("/owner", userId, state, from, size, cursor);
     }
 
-    public ResponseEntity<Object> getBookingsOwner(Long userId, String state, Long from, Long size) {
-        if (from != null && size != null && state != null) {
-            Map<String, Object> parameters = Map.of(
-                    "state", state,
-                    "from", from,
-                    "size", size
-            );
-            return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    private Mono<ResponseEntity<Flux<DataBuffer>>> getPage(String path, Long userId, String state, Long from,
+                                                           Long size, String cursor) {
+        StringBuilder query = new StringBuilder(path).append("?state={state}");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state != null ? state : "ALL");
+        if (from != null) {
+            query.append("&from={from}");
+            parameters.put("from", from);
+        }
+        if (size != null) {
+            query.append("&size={size}");
+            parameters.put("size", size);
         }
-        if (state != null) {
-            return get("/owner?state=" + state, userId);
-        } else {
-            return get("/owner", userId);
+        if (cursor != null) {
+            query.append("&cursor={cursor}");
+            parameters.put("cursor", cursor);
         }
+        return get(query.toString(), userId, parameters);
     }
-
 }
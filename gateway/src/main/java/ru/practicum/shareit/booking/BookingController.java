@@ -2,12 +2,18 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.client.StreamRelayClient;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
@@ -20,10 +26,11 @@ import javax.validation.constraints.Positive;
 @Validated
 public class BookingController {
     private final BookingClient bookingClient;
+    private final StreamRelayClient streamRelayClient;
 
     @PostMapping
-    public ResponseEntity<Object> bookItem(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
-                                           @RequestBody @Valid BookItemRequestDto requestDto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> bookItem(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                                 @RequestBody @Valid BookItemRequestDto requestDto) {
         log.info("Creating booking {}, userId={}", requestDto, userId);
         return bookingClient.bookItem(userId, requestDto);
     }
@@ -31,39 +38,50 @@ public class BookingController {
 
     @PatchMapping("/{bookingId}")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> updateBooking(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
-                                                @PathVariable(name = "bookingId") @Positive Long id,
-                                                @RequestParam(name = "approved") Boolean approved) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateBooking(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                                      @PathVariable(name = "bookingId") @Positive Long id,
+                                                      @RequestParam(name = "approved") Boolean approved) {
         return bookingClient.updateBooking(userId, id, approved);
     }
 
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> streamBookings(
+            @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
+        log.info("Streaming booking events, userId={}", userId);
+        return streamRelayClient.relay("/bookings/stream", userId, MediaType.TEXT_EVENT_STREAM);
+    }
+
     @GetMapping("/{bookingId}")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
-                                             @PathVariable @Positive Long bookingId) {
+    public Mono<ResponseEntity<byte[]>> getBooking(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                                   @PathVariable @Positive Long bookingId,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                   String ifNoneMatch) {
         log.info("Get booking {}, userId={}", bookingId, userId);
-        return bookingClient.getBooking(userId, bookingId);
+        return bookingClient.getBooking(userId, bookingId, ifNoneMatch);
     }
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> getBookings(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
-                                              @RequestParam(name = "state", defaultValue = "ALL") String state,
-                                              @RequestParam(value = "from", required = false) @Min(0) Long from,
-                                              @RequestParam(value = "size", required = false) @Min(1) Long size
-    ) {
-        log.info("Get booking with state {}, userId={}, from={}, size={}", state, userId, from, size);
-        return bookingClient.getBookings(userId, state, from, size);
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBookings(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                                    @RequestParam(name = "state", defaultValue = "ALL") String state,
+                                                    @RequestParam(value = "from", required = false) @Min(0) Long from,
+                                                    @RequestParam(value = "size", required = false) @Min(1) Long size,
+                                                    @RequestParam(value = "cursor", required = false) String cursor
+          ) {
+        log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}", state, userId, from, size, cursor);
+        return bookingClient.getBookings(userId, state, from, size, cursor);
     }
 
     @GetMapping("/owner")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> getBookingsItemsOwner(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
-                                                        @RequestParam(defaultValue = "ALL") String state,
-                                                        @RequestParam(value = "from", required = false) @Min(0) Long from,
-                                                        @RequestParam(value = "size", required = false) @Min(1) Long size
-    ) {
-        return bookingClient.getBookingsOwner(userId, state, from, size);
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBookingsItemsOwner(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                                              @RequestParam(defaultValue = "ALL") String state,
+                                                              @RequestParam(value = "from", required = false) @Min(0) Long from,
+                                                              @RequestParam(value = "size", required = false) @Min(1) Long size,
+                                                              @RequestParam(value = "cursor", required = false) String cursor
+          ) {
+        return bookingClient.getBookingsOwner(userId, state, from, size, cursor);
     }
 
 
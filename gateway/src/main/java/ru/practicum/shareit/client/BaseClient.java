@@ -1,117 +1,236 @@
 package ru.practicum.shareit.client;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Proxies calls to the server without looking into the responses: status and end-to-end headers are copied, and the
+ * body goes to the client as the buffers it arrives in, written and released one by one, so a large list never sits
+ * in the gateway as a whole. GETs that concurrent callers share ({@link #sharedGet}, {@link #conditionalGet}) are the
+ * exception: their bodies are aggregated once and handed to every caller waiting on them.
+ */
 public class BaseClient {
-    protected final RestTemplate rest;
-
-    public BaseClient(RestTemplate rest) {
+    private static final long VALIDATED_BYTES = 16L * 1024 * 1024;
+    private static final Duration VALIDATED_IDLE_TIME = Duration.ofMinutes(10);
+    private static final Set<String> NOT_FORWARDED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        NOT_FORWARDED_HEADERS.addAll(List.of(
+                HttpHeaders.CONNECTION, "Keep-Alive", HttpHeaders.TRANSFER_ENCODING, HttpHeaders.TE,
+                HttpHeaders.TRAILER, HttpHeaders.UPGRADE, HttpHeaders.PROXY_AUTHENTICATE,
+                HttpHeaders.PROXY_AUTHORIZATION));
+    }
+
+    protected final WebClient rest;
+    private final ConcurrentMap<GetKey, Mono<ResponseEntity<byte[]>>> inFlightGets = new ConcurrentHashMap<>();
+    private final Cache<GetKey, ResponseEntity<byte[]>> validated = Caffeine.newBuilder()
+            .maximumWeight(VALIDATED_BYTES)
+            .weigher((GetKey key, ResponseEntity<byte[]> response) ->
+                    response.getBody() != null ? response.getBody().length : 0)
+            .expireAfterAccess(VALIDATED_IDLE_TIME)
+            .build();
+
+    public BaseClient(WebClient rest) {
         this.rest = rest;
     }
 
-    protected ResponseEntity<Object> get(String path) {
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> get(String path) {
         return get(path, null, null);
     }
 
-    protected ResponseEntity<Object> get(String path, long userId) {
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> get(String path, long userId) {
         return get(path, userId, null);
     }
 
-    protected ResponseEntity<Object> get(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> get(String path, Long userId,
+                                                         @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, T body) {
+    protected Mono<ResponseEntity<byte[]>> sharedGet(String path) {
+        return sharedGet(path, null, null);
+    }
+
+    /**
+     * Identical GETs (same path, parameters and user) that arrive while one is in flight wait for its response
+     * instead of calling the server again. The call is forgotten as soon as it completes, so nothing is cached
+     * beyond the moment of the call.
+     */
+    protected Mono<ResponseEntity<byte[]>> sharedGet(String path, Long userId,
+                                                     @Nullable Map<String, Object> parameters) {
+        return coalescedGet(new GetKey(path, userId, parameters, null));
+    }
+
+    /**
+     * GET of a resource the server tags with an ETag. The last tagged 200 for the path and user is kept, and its tag
+     * goes upstream in If-None-Match next to the client's own. If the server answers 304 for the kept tag but not
+     * for the client's, the kept body goes back to the client. An unchanged object then costs the server no body
+     * on the wire, and a client holding the current tag gets a 304 as well.
+     */
+    protected Mono<ResponseEntity<byte[]>> conditionalGet(String path, long userId, @Nullable String ifNoneMatch) {
+        GetKey validatedKey = new GetKey(path, userId, null, null);
+        ResponseEntity<byte[]> known = validated.getIfPresent(validatedKey);
+        String knownEtag = known != null ? known.getHeaders().getETag() : null;
+        String conditions = Stream.of(ifNoneMatch, knownEtag)
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining(", "));
+        return coalescedGet(new GetKey(path, userId, null, conditions.isEmpty() ? null : conditions))
+                .map(response -> {
+                    if (response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                        String etag = response.getHeaders().getETag();
+                        boolean clientHasIt = ifNoneMatch != null && etag != null && matches(ifNoneMatch, etag);
+                        return !clientHasIt && known != null && Objects.equals(etag, knownEtag) ? known : response;
+                    }
+                    if (response.getStatusCode() == HttpStatus.OK && response.getHeaders().getETag() != null) {
+                        validated.put(validatedKey, response);
+                    } else {
+                        validated.invalidate(validatedKey);
+                    }
+                    return response;
+                });
+    }
+
+    /**
+     * If-None-Match compares weakly: {@code W/"x"} and {@code "x"} are the same tag.
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        HttpHeaders conditions = new HttpHeaders();
+        conditions.setIfNoneMatch(ifNoneMatch);
+        String opaqueTag = opaqueTag(etag);
+        return conditions.getIfNoneMatch().stream()
+                .anyMatch(tag -> tag.equals("*") || opaqueTag(tag).equals(opaqueTag));
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private Mono<ResponseEntity<byte[]>> coalescedGet(GetKey key) {
+        return Mono.defer(() -> inFlightGets.computeIfAbsent(key, k ->
+                rest.get()
+                        .uri(k.getPath(), k.getParameters() != null ? k.getParameters() : Map.of())
+                        .headers(headers -> headers.addAll(defaultHeaders(k.getUserId(), k.getIfNoneMatch())))
+                        .exchangeToMono(response -> response.toEntity(byte[].class)
+                                .map(entity -> ResponseEntity.status(response.rawStatusCode())
+                                        .headers(forwarded(entity.getHeaders()))
+                                        .body(entity.getBody())))
+                        // forgotten before anyone is answered: doFinally would run after the callers, and one
+                        // arriving in between would be handed this finished call, a failure included
+                        .doOnTerminate(() -> inFlightGets.remove(k))
+                        .doOnCancel(() -> inFlightGets.remove(k))
+                        .cache()));
+    }
+
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> post(String path, T body) {
         return post(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> post(String path, long userId, T body) {
         return post(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> post(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> put(String path, long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PUT, path, userId, parameters, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, T body) {
         return patch(path, null, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, long userId) {
         return patch(path, userId, null, null);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, long userId, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, long userId, T body) {
         return patch(path, userId, null, body);
     }
 
-    protected <T> ResponseEntity<Object> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, Long userId, @Nullable Map<String, Object> parameters, T body) {
         return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
     }
 
-    protected ResponseEntity<Object> delete(String path) {
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> delete(String path) {
         return delete(path, null, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, long userId) {
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> delete(String path, long userId) {
         return delete(path, userId, null);
     }
 
-    protected ResponseEntity<Object> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> delete(String path, Long userId, @Nullable Map<String, Object> parameters) {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
-    private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
-
-        ResponseEntity<Object> shareitServerResponse;
-        try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
-            }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
-        }
-        return prepareGatewayResponse(shareitServerResponse);
+    private <T> Mono<ResponseEntity<Flux<DataBuffer>>> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
+        WebClient.RequestBodySpec request = rest.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> headers.addAll(defaultHeaders(userId, null)));
+        WebClient.RequestHeadersSpec<?> spec = body != null ? request.bodyValue(body) : request;
+        return spec.retrieve()
+                // every status is passed on as it is, error bodies included
+                .onRawStatus(status -> true, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .map(response -> ResponseEntity.status(response.getStatusCodeValue())
+                        .headers(forwarded(response.getHeaders()))
+                        .body(response.getBody()));
     }
 
-    private HttpHeaders defaultHeaders(Long userId) {
+    private HttpHeaders defaultHeaders(Long userId, @Nullable String ifNoneMatch) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         if (userId != null) {
             headers.set("X-Sharer-User-Id", String.valueOf(userId));
         }
+        if (ifNoneMatch != null) {
+            headers.setIfNoneMatch(ifNoneMatch);
+        }
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
-        }
+    private static HttpHeaders forwarded(HttpHeaders upstream) {
+        HttpHeaders headers = new HttpHeaders();
+        upstream.forEach((name, values) -> {
+            if (!NOT_FORWARDED_HEADERS.contains(name)) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
+    }
 
-        return responseBuilder.build();
+    @Data
+    @AllArgsConstructor
+    private static class GetKey {
+        private final String path;
+        private final Long userId;
+        private final Map<String, Object> parameters;
+        private final String ifNoneMatch;
     }
 }
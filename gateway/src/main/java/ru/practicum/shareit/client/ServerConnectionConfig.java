@@ -0,0 +1,45 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.boot.autoconfigure.web.reactive.function.client.ReactorNettyHttpClientMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorResourceFactory;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * One bounded connection pool to the server, shared by every {@link BaseClient} through the auto-configured
+ * {@code WebClient.Builder}. Reactor Netty pools per remote address, so {@link #MAX_CONNECTIONS} is the per-route
+ * limit and, with a single server behind the gateway, the total as well. Requests beyond it wait in a bounded
+ * queue instead of opening more sockets.
+ */
+@Configuration
+public class ServerConnectionConfig {
+
+    private static final int MAX_CONNECTIONS = 500;
+    private static final int MAX_PENDING_ACQUIRES = 10_000;
+    private static final Duration PENDING_ACQUIRE_TIMEOUT = Duration.ofSeconds(10);
+    // below the server's keep-alive timeout, so an idle connection is never reused just as the server closes it
+    private static final Duration MAX_IDLE_TIME = Duration.ofSeconds(15);
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(30);
+
+    @Bean
+    public ReactorResourceFactory reactorResourceFactory() {
+        ReactorResourceFactory factory = new ReactorResourceFactory();
+        factory.setUseGlobalResources(false);
+        factory.setConnectionProviderSupplier(() -> ConnectionProvider.builder("shareit-server")
+                .maxConnections(MAX_CONNECTIONS)
+                .pendingAcquireMaxCount(MAX_PENDING_ACQUIRES)
+                .pendingAcquireTimeout(PENDING_ACQUIRE_TIMEOUT)
+                .maxIdleTime(MAX_IDLE_TIME)
+                .metrics(true)
+                .build());
+        return factory;
+    }
+
+    @Bean
+    public ReactorNettyHttpClientMapper serverResponseTimeout() {
+        return httpClient -> httpClient.responseTimeout(RESPONSE_TIMEOUT);
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorResourceFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+
+/**
+ * Relays streamed responses (server-sent events, NDJSON) from the server byte for byte. Buffers are written to the
+ * client as they arrive and only while it keeps reading, so an open stream holds a connection but no thread.
+ * Streams are long-lived, so they get their own connection pool instead of taking connections from the
+ * request/response clients. A non-2xx answer from the server is passed on by the error handler.
+ */
+@Service
+public class StreamRelayClient {
+
+    private static final int MAX_STREAMS = 200;
+    private static final Duration PENDING_ACQUIRE_TIMEOUT = Duration.ofSeconds(10);
+    // event streams get a heartbeat every 15 seconds, so a silent minute means the stream is dead
+    private static final Duration READ_TIMEOUT = Duration.ofMinutes(1);
+
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+
+    @Autowired
+    public StreamRelayClient(@Value("${shareit-server.url}") String serverUrl,
+                             WebClient.Builder builder,
+                             ReactorResourceFactory resourceFactory) {
+        this.connectionProvider = ConnectionProvider.builder("shareit-server-streams")
+                .maxConnections(MAX_STREAMS)
+                .pendingAcquireTimeout(PENDING_ACQUIRE_TIMEOUT)
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .runOn(resourceFactory.getLoopResources())
+                .responseTimeout(READ_TIMEOUT);
+        this.webClient = builder
+                .baseUrl(serverUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> relay(String path, @Nullable Long userId, MediaType mediaType) {
+        return webClient.get()
+                .uri(path)
+                .accept(mediaType, MediaType.APPLICATION_JSON)
+                .headers(headers -> {
+                    if (userId != null) {
+                        headers.set("X-Sharer-User-Id", String.valueOf(userId));
+                    }
+                })
+                .retrieve()
+                .toEntityFlux(DataBuffer.class)
+                .map(response -> ResponseEntity.status(response.getStatusCode())
+                        .contentType(mediaType)
+                        .cacheControl(CacheControl.noCache())
+                        .header("X-Accel-Buffering", "no")
+                        .body(response.getBody()));
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionProvider.dispose();
+    }
+}
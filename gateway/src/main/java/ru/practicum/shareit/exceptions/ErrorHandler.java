@@ -1,9 +1,11 @@
 package ru.practicum.shareit.exceptions;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import javax.validation.ConstraintViolationException;
 
@@ -18,4 +20,11 @@ public class ErrorHandler {
         );
     }
 
-}
\ No newline at end of file
+    @ExceptionHandler
+    public ResponseEntity<byte[]> handleServerError(final WebClientResponseException e) {
+        return ResponseEntity.status(e.getRawStatusCode())
+                .contentType(e.getHeaders().getContentType())
+                .body(e.getResponseBodyAsByteArray());
+    }
+
+}
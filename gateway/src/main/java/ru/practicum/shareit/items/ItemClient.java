@@ -2,16 +2,19 @@ package ru.practicum.shareit.items;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.items.dto.Comment;
 import ru.practicum.shareit.items.dto.ItemDto;
 import ru.practicum.shareit.items.dto.ItemDtoPatch;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -20,16 +23,15 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .build()
         );
     }
 
-    public ResponseEntity<Object> getItems(Long userId, Long from, Long size) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItems(Long userId, Long from, Long size) {
         if (from != null && size != null) {
             Map<String, Object> parameters = Map.of(
                     "from", from,
@@ -41,31 +43,52 @@ public class ItemClient extends BaseClient {
         }
     }
 
-    public ResponseEntity<Object> addNewItem(Long userId, ItemDto itemDto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> addNewItem(Long userId, ItemDto itemDto) {
         return post("", userId, itemDto);
     }
 
-    public ResponseEntity<Object> deleteItem(Long userId, Long itemId) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> deleteItem(Long userId, Long itemId) {
         return delete("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> updateItem(Long userId, Long itemId, ItemDtoPatch itemDtoPatch) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateItem(Long userId, Long itemId, ItemDtoPatch itemDtoPatch) {
         return patch("/" + itemId, userId, itemDtoPatch);
     }
 
-    public ResponseEntity<Object> getItemById(Long userId, Long itemId) {
-        return get("/" + itemId, userId);
+    public Mono<ResponseEntity<byte[]>> getItemById(Long userId, Long itemId, String ifNoneMatch) {
+        return conditionalGet("/" + itemId, userId, ifNoneMatch);
     }
 
-    public ResponseEntity<Object> getSearchItems(String text, Long from, Long size) {
+    public Mono<ResponseEntity<byte[]>> getSearchItems(String text, Long from, Long size, boolean fuzzy, boolean facets) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("text", text);
+        String path = "/search?text={text}" + (fuzzy ? "&fuzzy=true" : "") + (facets ? "&facets=true" : "");
         if (from != null && size != null) {
-            return get("/search?text=" + text + "&from=" + from + "&size=" + size);
-        } else {
-            return get("/search?text=" + text);
+            parameters.put("from", from);
+            parameters.put("size", size);
+            return sharedGet(path + "&from={from}&size={size}", null, parameters);
+        }
+        return sharedGet(path, null, parameters);
+    }
+
+    public Mono<ResponseEntity<byte[]>> getSimilarItems(Long itemId, Integer size) {
+        if (size != null) {
+            return sharedGet("/" + itemId + "/similar?size=" + size);
+        }
+        return sharedGet("/" + itemId + "/similar");
+    }
+
+    public Mono<ResponseEntity<byte[]>> getSuggestions(String prefix, Integer size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("prefix", prefix != null ? prefix : "");
+        if (size != null) {
+            parameters.put("size", size);
+            return sharedGet("/suggest?prefix={prefix}&size={size}", null, parameters);
         }
+        return sharedGet("/suggest?prefix={prefix}", null, parameters);
     }
 
-    public ResponseEntity<Object> addComment(Long userId, Comment comment, Long itemId) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> addComment(Long userId, Comment comment, Long itemId) {
         return post("/" + itemId + "/comment", userId, comment);
     }
 
@@ -1,15 +1,20 @@
 package ru.practicum.shareit.items;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.items.dto.Comment;
 import ru.practicum.shareit.items.dto.ItemDto;
 import ru.practicum.shareit.items.dto.ItemDtoPatch;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.Positive;
 
@@ -19,61 +24,81 @@ import javax.validation.constraints.Positive;
 public class ItemController {
 
     private final ItemClient itemClient;
+    private final ItemSearchEdgeCache itemSearchEdgeCache;
 
-    public ItemController(@Autowired ItemClient itemClient) {
+    public ItemController(@Autowired ItemClient itemClient, @Autowired ItemSearchEdgeCache itemSearchEdgeCache) {
         this.itemClient = itemClient;
+        this.itemSearchEdgeCache = itemSearchEdgeCache;
     }
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> getItems(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
-                                           @RequestParam(value = "from", required = false) @Min(1) Long from,
-                                           @RequestParam(value = "size", required = false) @Min(1) Long size) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItems(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                                 @RequestParam(value = "from", required = false) @Min(1) Long from,
+                                                 @RequestParam(value = "size", required = false) @Min(1) Long size) {
         return itemClient.getItems(userId, from, size);
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseEntity<Object> addItem(@RequestHeader(value = "X-Sharer-User-Id") @Positive Long userId,
-                                          @RequestBody @Valid ItemDto item) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> addItem(@RequestHeader(value = "X-Sharer-User-Id") @Positive Long userId,
+                                                @RequestBody @Valid ItemDto item) {
         return itemClient.addNewItem(userId, item);
     }
 
     @DeleteMapping("/{itemId}")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> deleteItem(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
-                                             @PathVariable Long itemId) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> deleteItem(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                                   @PathVariable Long itemId) {
         return itemClient.deleteItem(userId, itemId);
     }
 
     @PatchMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> updateItem(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
-                                             @RequestBody ItemDtoPatch itemDtoPatch,
-                                             @PathVariable Long id) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateItem(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                                   @RequestBody ItemDtoPatch itemDtoPatch,
+                                                   @PathVariable Long id) {
         return itemClient.updateItem(userId, id, itemDtoPatch);
     }
 
     @GetMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> getItemById(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
-                                              @PathVariable @Positive Long id) {
-        return itemClient.getItemById(userId, id);
+    public Mono<ResponseEntity<byte[]>> getItemById(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                                    @PathVariable @Positive Long id,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                    String ifNoneMatch) {
+        return itemClient.getItemById(userId, id, ifNoneMatch);
     }
 
     @GetMapping("/search")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> getSearchItems(@RequestParam(name = "text", required = false) String text,
-                                                 @RequestParam(value = "from", required = false) @Min(1) Long from,
-                                                 @RequestParam(value = "size", required = false) @Min(1) Long size) {
-        return itemClient.getSearchItems(text, from, size);
+    public Mono<ResponseEntity<byte[]>> getSearchItems(@RequestParam(name = "text", required = false) String text,
+                                                       @RequestParam(value = "from", required = false) @Min(1) Long from,
+                                                       @RequestParam(value = "size", required = false) @Min(1) Long size,
+                                                       @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy,
+                                                       @RequestParam(value = "facets", defaultValue = "false") boolean facets) {
+        return itemSearchEdgeCache.get(text, from, size, fuzzy, facets);
+    }
+
+    @GetMapping("/suggest")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<ResponseEntity<byte[]>> getSuggestions(@RequestParam(name = "prefix", required = false) String prefix,
+                                                       @RequestParam(value = "size", required = false) @Min(1) @Max(10) Integer size) {
+        return itemClient.getSuggestions(prefix, size);
+    }
+
+    @GetMapping("/{id}/similar")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<ResponseEntity<byte[]>> getSimilarItems(@PathVariable @Positive Long id,
+                                                        @RequestParam(value = "size", required = false) @Min(1) @Max(50) Integer size) {
+        return itemClient.getSimilarItems(id, size);
     }
 
     @PostMapping("/{itemId}/comment")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> addComment(@RequestHeader(value = "X-Sharer-User-Id") @Positive Long userId,
-                                             @RequestBody @Valid Comment comment,
-                                             @PathVariable Long itemId) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> addComment(@RequestHeader(value = "X-Sharer-User-Id") @Positive Long userId,
+                                                   @RequestBody @Valid Comment comment,
+                                                   @PathVariable Long itemId) {
         return itemClient.addComment(userId, comment, itemId);
     }
 
@@ -0,0 +1,109 @@
+package ru.practicum.shareit.items;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Serves item search responses from the gateway. Search is public and the same for every user, so a response is
+ * kept as the server's bytes under the normalized query. After {@link #REFRESH_AFTER} the next hit still gets the
+ * stored bytes while a fresh copy is loaded in the background; an entry nobody asked for within
+ * {@link #EXPIRE_AFTER} is dropped. Only successful responses are stored, and a failed refresh keeps the old one.
+ */
+@Component
+public class ItemSearchEdgeCache {
+
+    public static final String CACHE_NAME = "gatewayItemSearch";
+
+    private static final long MAX_BYTES = 32L * 1024 * 1024;
+    private static final Duration REFRESH_AFTER = Duration.ofSeconds(10);
+    private static final Duration EXPIRE_AFTER = Duration.ofMinutes(1);
+
+    private final ItemClient itemClient;
+    private final AsyncLoadingCache<SearchKey, ResponseEntity<byte[]>> cache;
+
+    @Autowired
+    public ItemSearchEdgeCache(ItemClient itemClient, MeterRegistry meterRegistry) {
+        this(itemClient, meterRegistry, Ticker.systemTicker());
+    }
+
+    ItemSearchEdgeCache(ItemClient itemClient, MeterRegistry meterRegistry, Ticker ticker) {
+        this.itemClient = itemClient;
+        this.cache = Caffeine.newBuilder()
+                .ticker(ticker)
+                .maximumWeight(MAX_BYTES)
+                .weigher((SearchKey key, ResponseEntity<byte[]> response) ->
+                        response.getBody() != null ? response.getBody().length : 0)
+                .refreshAfterWrite(REFRESH_AFTER)
+                .expireAfterWrite(EXPIRE_AFTER)
+                .recordStats()
+                .buildAsync((key, executor) -> load(key));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public Mono<ResponseEntity<byte[]>> get(String text, Long from, Long size, boolean fuzzy, boolean facets) {
+        SearchKey key = SearchKey.of(text, from, size, fuzzy, facets);
+        CompletableFuture<ResponseEntity<byte[]>> response = cache.get(key);
+        // each caller waits on a copy, so a client hanging up does not cancel the load others share
+        return Mono.fromFuture(response.copy())
+                .onErrorResume(UncachedResponse.class, e -> {
+                    // callers are answered before the cache drops the failed load, so drop it here
+                    cache.asMap().remove(key, response);
+                    return Mono.just(e.getResponse());
+                });
+    }
+
+    private CompletableFuture<ResponseEntity<byte[]>> load(SearchKey key) {
+        return itemClient.getSearchItems(key.getText(), key.getFrom(), key.getSize(), key.isFuzzy(), key.isFacets())
+                .flatMap(response -> response.getStatusCode().is2xxSuccessful()
+                        ? Mono.just(response)
+                        : Mono.<ResponseEntity<byte[]>>error(new UncachedResponse(response)))
+                .toFuture();
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class SearchKey {
+        private final String text;
+        private final Long from;
+        private final Long size;
+        private final boolean fuzzy;
+        private final boolean facets;
+
+        /**
+         * The server ignores surrounding and repeated whitespace and starts a page at a multiple of its size,
+         * so queries that differ only there share an entry.
+         */
+        static SearchKey of(String text, Long from, Long size, boolean fuzzy, boolean facets) {
+            String normalized = text != null ? text.trim().replaceAll("\\s+", " ") : null;
+            if (from == null || size == null) {
+                return new SearchKey(normalized, null, null, fuzzy, facets);
+            }
+            return new SearchKey(normalized, from / size * size, size, fuzzy, facets);
+        }
+    }
+
+    private static class UncachedResponse extends RuntimeException {
+        private final ResponseEntity<byte[]> response;
+
+        UncachedResponse(ResponseEntity<byte[]> response) {
+            super(null, null, false, false);
+            this.response = response;
+        }
+
+        ResponseEntity<byte[]> getResponse() {
+            return response;
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package ru.practicum.shareit.requests;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.StreamRelayClient;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 
 import javax.validation.Valid;
@@ -17,36 +23,48 @@ import javax.validation.constraints.Positive;
 public class ItemRequestController {
 
     private final ItemRequestClient itemRequestClient;
+    private final StreamRelayClient streamRelayClient;
 
-    public ItemRequestController(@Autowired ItemRequestClient itemRequestClient) {
+    public ItemRequestController(@Autowired ItemRequestClient itemRequestClient,
+                                 @Autowired StreamRelayClient streamRelayClient) {
         this.itemRequestClient = itemRequestClient;
+        this.streamRelayClient = streamRelayClient;
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseEntity<Object> createRequest(@RequestHeader(value = "X-Sharer-User-Id") @Positive Long userId,
-                                                @RequestBody @Valid ItemRequestDto itemRequestDto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createRequest(@RequestHeader(value = "X-Sharer-User-Id") @Positive Long userId,
+                                                      @RequestBody @Valid ItemRequestDto itemRequestDto) {
         return itemRequestClient.add(userId, itemRequestDto);
     }
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> getRequest(@RequestHeader(value = "X-Sharer-User-Id") @Positive Long userId) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getRequest(@RequestHeader(value = "X-Sharer-User-Id") @Positive Long userId) {
         return itemRequestClient.getAllRequests(userId);
     }
 
     @GetMapping("/all")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> getRequests(@RequestHeader(value = "X-Sharer-User-Id") @Positive Long userId,
-                                              @RequestParam(value = "from", defaultValue = "0") @Min(0) int from,
-                                              @RequestParam(value = "size", defaultValue = "10") @Min(1) int size) {
-        return itemRequestClient.getFromSize(userId, from, size);
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getRequests(@RequestHeader(value = "X-Sharer-User-Id") @Positive Long userId,
+                                                    @RequestParam(value = "from", defaultValue = "0") @Min(0) int from,
+                                                    @RequestParam(value = "size", defaultValue = "10") @Min(1) int size,
+                                                    @RequestParam(value = "cursor", required = false) String cursor) {
+        return itemRequestClient.getFromSize(userId, from, size, cursor);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> streamRequests(
+            @RequestHeader(value = "X-Sharer-User-Id") @Positive Long userId) {
+        return streamRelayClient.relay("/requests/stream", userId, MediaType.TEXT_EVENT_STREAM);
     }
 
     @GetMapping("/{requestId}")
-    public ResponseEntity<Object> getRequestById(@RequestHeader(value = "X-Sharer-User-Id") @Positive Long userId,
-                                                 @PathVariable(value = "requestId") @Positive Long requestId) {
-        return itemRequestClient.getRequestById(userId, requestId);
+    public Mono<ResponseEntity<byte[]>> getRequestById(@RequestHeader(value = "X-Sharer-User-Id") @Positive Long userId,
+                                                       @PathVariable(value = "requestId") @Positive Long requestId,
+                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                       String ifNoneMatch) {
+        return itemRequestClient.getRequestById(userId, requestId, ifNoneMatch);
     }
 
 }
\ No newline at end of file
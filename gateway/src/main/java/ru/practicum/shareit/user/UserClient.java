@@ -2,47 +2,64 @@ package ru.practicum.shareit.user;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoPatch;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
 
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder) {
         super(
                 builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
+                        .uriBuilderFactory(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .build()
         );
     }
 
-    public ResponseEntity<Object> addUser(UserDto userDto) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> addUser(UserDto userDto) {
         return post("", userDto);
     }
 
-    public ResponseEntity<Object> patchUser(Long userId, UserDtoPatch userDtoPatch) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> patchUser(Long userId, UserDtoPatch userDtoPatch) {
         return patch("/" + userId, userDtoPatch);
     }
 
-    public ResponseEntity<Object> getUserById(Long userId) {
-        return get("/" + userId);
+    public Mono<ResponseEntity<byte[]>> getUserById(Long userId) {
+        return sharedGet("/" + userId);
     }
 
-    public ResponseEntity<Object> getUsers() {
-        return get("");
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUsers(Integer size, String cursor) {
+        if (size == null && cursor == null) {
+            return get("");
+        }
+        StringBuilder query = new StringBuilder("?");
+        Map<String, Object> parameters = new HashMap<>();
+        if (size != null) {
+            query.append("size={size}&");
+            parameters.put("size", size);
+        }
+        if (cursor != null) {
+            query.append("cursor={cursor}&");
+            parameters.put("cursor", cursor);
+        }
+        return get(query.substring(0, query.length() - 1), null, parameters);
     }
 
-    public ResponseEntity<Object> deleteUser(Long userId) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> deleteUser(Long userId) {
         return delete("/" + userId);
     }
 
@@ -2,11 +2,16 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.StreamRelayClient;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoPatch;
 
@@ -21,34 +26,42 @@ import javax.validation.constraints.Positive;
 public class UserController {
 
     private final UserClient userClient;
+    private final StreamRelayClient streamRelayClient;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public ResponseEntity<Object> userCreate(@RequestBody @Valid UserDto user) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> userCreate(@RequestBody @Valid UserDto user) {
         return userClient.addUser(user);
     }
 
     @PatchMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> updateUser(@RequestBody UserDtoPatch userDtoPatch, @PathVariable @Positive Long id) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateUser(@RequestBody UserDtoPatch userDtoPatch, @PathVariable @Positive Long id) {
         return userClient.patchUser(id, userDtoPatch);
     }
 
     @GetMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> getUserById(@PathVariable @Positive Long id) {
+    public Mono<ResponseEntity<byte[]>> getUserById(@PathVariable @Positive Long id) {
         return userClient.getUserById(id);
     }
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> getUsers() {
-        return userClient.getUsers();
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUsers(@RequestParam(value = "size", required = false) @Positive Integer size,
+                                                 @RequestParam(value = "cursor", required = false) String cursor) {
+        return userClient.getUsers(size, cursor);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<ResponseEntity<Flux<DataBuffer>>> streamUsers() {
+        log.info("Streaming all users");
+        return streamRelayClient.relay("/users/stream", null, MediaType.APPLICATION_NDJSON);
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> userDelete(@PathVariable @Positive Long id) {
+    public Mono<ResponseEntity<Flux<DataBuffer>>> userDelete(@PathVariable @Positive Long id) {
         return userClient.deleteUser(id);
     }
 }
@@ -0,0 +1,274 @@
+package ru.practicum.shareit.client;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BaseClientTest {
+
+    private static final String ITEM = "{\"id\":1,\"name\":\"Дрель\"}";
+    private static final String ITEM_CHANGED = "{\"id\":1,\"name\":\"Дрель 2\"}";
+
+    private MockWebServer server;
+    private BaseClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        HttpClient httpClient = HttpClient.create().responseTimeout(Duration.ofSeconds(1));
+        client = new BaseClient(WebClient.builder()
+                .baseUrl(server.url("/items").toString())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void statusHeadersAndBodyArePassedOn() throws InterruptedException {
+        server.enqueue(new MockResponse()
+                .setResponseCode(201)
+                .setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                .setHeader("X-Trace-Id", "abc")
+                .setHeader("Keep-Alive", "timeout=60")
+                .setBody(ITEM));
+
+        ResponseEntity<Flux<DataBuffer>> response = client.post("", 1L, Map.of("name", "Дрель")).block();
+
+        assertEquals(201, response.getStatusCodeValue());
+        assertEquals("application/json", response.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
+        assertEquals("abc", response.getHeaders().getFirst("X-Trace-Id"));
+        assertNull(response.getHeaders().getFirst("Keep-Alive"));
+        assertEquals(ITEM, asString(response.getBody()));
+        RecordedRequest request = server.takeRequest();
+        assertEquals("1", request.getHeader("X-Sharer-User-Id"));
+        assertEquals("{\"name\":\"Дрель\"}", request.getBody().readUtf8());
+    }
+
+    @Test
+    void errorBodyIsPassedOnAsItIs() {
+        String error = "{\"error\":\"Item not found\"}";
+        server.enqueue(new MockResponse()
+                .setResponseCode(404)
+                .setHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                .setBody(error));
+
+        ResponseEntity<Flux<DataBuffer>> response = client.get("/99", 1L).block();
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(error, asString(response.getBody()));
+    }
+
+    @Test
+    void bodyLargerThanTheCodecBufferIsStreamed() {
+        // the default limit for aggregated bodies is 256KB
+        byte[] body = new byte[1024 * 1024];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) ('a' + i % 26);
+        }
+        server.enqueue(new MockResponse().setBody(new Buffer().write(body)));
+
+        ResponseEntity<Flux<DataBuffer>> response = client.get("", 1L).block();
+
+        assertArrayEquals(body, asBytes(response.getBody()));
+    }
+
+    @Test
+    void concurrentIdenticalGetsShareOneCall() {
+        server.enqueue(new MockResponse().setBody(ITEM).setHeadersDelay(300, TimeUnit.MILLISECONDS));
+
+        List<ResponseEntity<byte[]>> responses = Flux.merge(IntStream.range(0, 20)
+                        .mapToObj(i -> client.sharedGet("/1", 1L, null))
+                        .collect(Collectors.toList()))
+                .collectList()
+                .block();
+
+        assertEquals(20, responses.size());
+        responses.forEach(response -> assertEquals(ITEM, new String(response.getBody(), StandardCharsets.UTF_8)));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void getsOfDifferentUsersAreNotShared() {
+        server.enqueue(new MockResponse().setBody(ITEM).setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        server.enqueue(new MockResponse().setBody(ITEM).setHeadersDelay(300, TimeUnit.MILLISECONDS));
+
+        Flux.merge(client.sharedGet("/1", 1L, null), client.sharedGet("/1", 2L, null)).blockLast();
+
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void failedCallIsNotSharedWithLaterOnes() {
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        server.enqueue(new MockResponse().setBody(ITEM));
+
+        assertThrows(RuntimeException.class, () -> client.sharedGet("/1", 1L, null).block());
+        ResponseEntity<byte[]> response = client.sharedGet("/1", 1L, null).block();
+
+        assertEquals(ITEM, new String(response.getBody(), StandardCharsets.UTF_8));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    void callerHangingUpDoesNotCancelTheSharedCall() throws Exception {
+        server.enqueue(new MockResponse().setBody(ITEM).setHeadersDelay(300, TimeUnit.MILLISECONDS));
+
+        Disposable first = client.sharedGet("/1", 1L, null).subscribe();
+        CompletableFuture<ResponseEntity<byte[]>> second = client.sharedGet("/1", 1L, null).toFuture();
+        first.dispose();
+
+        assertEquals(ITEM, new String(second.get(5, TimeUnit.SECONDS).getBody(), StandardCharsets.UTF_8));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void callAfterEveryCallerHungUpStillGetsAResponse() {
+        server.enqueue(new MockResponse().setBody(ITEM).setHeadersDelay(300, TimeUnit.MILLISECONDS));
+        server.enqueue(new MockResponse().setBody(ITEM));
+
+        client.sharedGet("/1", 1L, null).subscribe().dispose();
+        ResponseEntity<byte[]> response = client.sharedGet("/1", 1L, null).block();
+
+        assertEquals(ITEM, new String(response.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void keptBodyIsServedWhenTheServerAnswersNotModified() throws InterruptedException {
+        server.enqueue(new MockResponse().setHeader(HttpHeaders.ETAG, "\"v1\"").setBody(ITEM));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader(HttpHeaders.ETAG, "\"v1\""));
+
+        client.conditionalGet("/1", 1L, null).block();
+        ResponseEntity<byte[]> response = client.conditionalGet("/1", 1L, null).block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(ITEM, new String(response.getBody(), StandardCharsets.UTF_8));
+        server.takeRequest();
+        assertEquals("\"v1\"", server.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void clientHoldingTheCurrentTagGetsNotModified() throws InterruptedException {
+        server.enqueue(new MockResponse().setHeader(HttpHeaders.ETAG, "\"v1\"").setBody(ITEM));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader(HttpHeaders.ETAG, "\"v1\""));
+
+        client.conditionalGet("/1", 1L, null).block();
+        ResponseEntity<byte[]> response = client.conditionalGet("/1", 1L, "\"v0\", \"v1\"").block();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        server.takeRequest();
+        assertEquals("\"v0\", \"v1\", \"v1\"", server.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    void weakClientTagMatchesTheStrongOne() {
+        server.enqueue(new MockResponse().setHeader(HttpHeaders.ETAG, "\"v1\"").setBody(ITEM));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader(HttpHeaders.ETAG, "\"v1\""));
+
+        client.conditionalGet("/1", 1L, null).block();
+        ResponseEntity<byte[]> response = client.conditionalGet("/1", 1L, "W/\"v1\"").block();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+    }
+
+    @Test
+    void strongClientTagMatchesTheWeakOne() {
+        server.enqueue(new MockResponse().setHeader(HttpHeaders.ETAG, "W/\"v1\"").setBody(ITEM));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader(HttpHeaders.ETAG, "W/\"v1\""));
+
+        client.conditionalGet("/1", 1L, null).block();
+        ResponseEntity<byte[]> response = client.conditionalGet("/1", 1L, "\"v1\"").block();
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+    }
+
+    @Test
+    void otherClientTagGetsTheKeptBody() {
+        server.enqueue(new MockResponse().setHeader(HttpHeaders.ETAG, "\"v1\"").setBody(ITEM));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader(HttpHeaders.ETAG, "\"v1\""));
+
+        client.conditionalGet("/1", 1L, null).block();
+        ResponseEntity<byte[]> response = client.conditionalGet("/1", 1L, "\"v11\"").block();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(ITEM, new String(response.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void changedObjectReplacesTheKeptBody() {
+        server.enqueue(new MockResponse().setHeader(HttpHeaders.ETAG, "\"v1\"").setBody(ITEM));
+        server.enqueue(new MockResponse().setHeader(HttpHeaders.ETAG, "\"v2\"").setBody(ITEM_CHANGED));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader(HttpHeaders.ETAG, "\"v2\""));
+
+        client.conditionalGet("/1", 1L, null).block();
+        client.conditionalGet("/1", 1L, null).block();
+        ResponseEntity<byte[]> response = client.conditionalGet("/1", 1L, null).block();
+
+        assertEquals(ITEM_CHANGED, new String(response.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void keptBodyIsNotServedToAnotherUser() throws InterruptedException {
+        server.enqueue(new MockResponse().setHeader(HttpHeaders.ETAG, "\"v1\"").setBody(ITEM));
+        server.enqueue(new MockResponse().setHeader(HttpHeaders.ETAG, "\"v1\"").setBody(ITEM));
+
+        client.conditionalGet("/1", 1L, null).block();
+        client.conditionalGet("/1", 2L, null).block();
+
+        server.takeRequest();
+        assertNull(server.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    private static byte[] asBytes(Flux<DataBuffer> body) {
+        return DataBufferUtils.join(body)
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .switchIfEmpty(Mono.just(new byte[0]))
+                .block();
+    }
+
+    private static String asString(Flux<DataBuffer> body) {
+        return new String(asBytes(body), StandardCharsets.UTF_8);
+    }
+}
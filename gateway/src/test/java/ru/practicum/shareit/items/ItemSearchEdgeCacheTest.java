@@ -0,0 +1,153 @@
+package ru.practicum.shareit.items;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class ItemSearchEdgeCacheTest {
+
+    private static final String OLD = "[{\"id\":1}]";
+    private static final String NEW = "[{\"id\":1},{\"id\":2}]";
+    private static final Duration PAST_REFRESH = Duration.ofSeconds(11);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private MockWebServer server;
+    private ItemSearchEdgeCache edgeCache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        ItemClient itemClient = new ItemClient("http://" + server.getHostName() + ":" + server.getPort(),
+                WebClient.builder());
+        edgeCache = new ItemSearchEdgeCache(itemClient, new SimpleMeterRegistry(), nanos::get);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void queriesDifferingInWhitespaceAndPageOffsetShareAKey() {
+        assertEquals(ItemSearchEdgeCache.SearchKey.of("дрель ударная", 10L, 5L, false, false),
+                ItemSearchEdgeCache.SearchKey.of("  дрель \t ударная ", 12L, 5L, false, false));
+        assertEquals(ItemSearchEdgeCache.SearchKey.of("дрель", null, null, true, false),
+                ItemSearchEdgeCache.SearchKey.of("дрель ", null, 5L, true, false));
+    }
+
+    @Test
+    void normalizedQueriesCallTheServerOnce() {
+        server.enqueue(new MockResponse().setBody(OLD));
+
+        edgeCache.get("дрель  ударная", 0L, 10L, false, false).block();
+        ResponseEntity<byte[]> response = edgeCache.get(" дрель ударная ", 3L, 10L, false, false).block();
+
+        assertEquals(OLD, body(response));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void textIsSentAsOneQueryParameter() throws InterruptedException {
+        server.enqueue(new MockResponse().setBody(OLD));
+
+        edgeCache.get("{drill}+bits&fuzzy=true#1", 0L, 10L, false, false).block();
+
+        HttpUrl url = server.takeRequest().getRequestUrl();
+        assertEquals("{drill}+bits&fuzzy=true#1", url.queryParameter("text"));
+        assertNull(url.queryParameter("fuzzy"));
+        assertEquals("10", url.queryParameter("size"));
+    }
+
+    @Test
+    void staleResponseIsServedWhileAFreshOneLoads() throws InterruptedException {
+        server.enqueue(new MockResponse().setBody(OLD));
+        server.enqueue(new MockResponse().setBody(NEW));
+
+        search().block();
+        server.takeRequest();
+        hitUntilReload(OLD);
+
+        awaitBody(NEW);
+    }
+
+    @Test
+    void failedRefreshKeepsTheStoredResponse() throws InterruptedException {
+        server.enqueue(new MockResponse().setBody(OLD));
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.enqueue(new MockResponse().setResponseCode(500));
+
+        search().block();
+        server.takeRequest();
+        hitUntilReload(OLD);
+        // one reload at a time per key, so a second one means the failed one has finished
+        hitUntilReload(OLD);
+
+        assertEquals(OLD, body(search().block()));
+    }
+
+    @Test
+    void errorResponseIsPassedOnButNotStored() {
+        server.enqueue(new MockResponse().setResponseCode(400).setBody("{\"error\":\"bad\"}"));
+        server.enqueue(new MockResponse().setBody(OLD));
+
+        ResponseEntity<byte[]> error = search().block();
+        ResponseEntity<byte[]> response = search().block();
+
+        assertEquals(HttpStatus.BAD_REQUEST, error.getStatusCode());
+        assertEquals("{\"error\":\"bad\"}", body(error));
+        assertEquals(OLD, body(response));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    private Mono<ResponseEntity<byte[]>> search() {
+        return edgeCache.get("дрель", null, null, false, false);
+    }
+
+    /**
+     * The write time of an entry is taken when its load completes, which may be just after the caller is
+     * answered, so the clock is moved on until a hit starts a reload. Every hit meanwhile gets the stored body.
+     */
+    private void hitUntilReload(String stored) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            nanos.addAndGet(PAST_REFRESH.toNanos());
+            assertEquals(stored, body(search().block()));
+            if (server.takeRequest(200, TimeUnit.MILLISECONDS) != null) {
+                return;
+            }
+        }
+        fail("no reload started");
+    }
+
+    private void awaitBody(String expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String actual = body(search().block());
+        while (!expected.equals(actual) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            actual = body(search().block());
+        }
+        assertEquals(expected, actual);
+    }
+
+    private static String body(ResponseEntity<byte[]> response) {
+        return new String(response.getBody(), StandardCharsets.UTF_8);
+    }
+}
@@ -2,10 +2,12 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoCreate;
+import ru.practicum.shareit.booking.dto.BookingSlice;
 import ru.practicum.shareit.booking.service.BookingService;
 
 import java.util.Collection;
@@ -15,6 +17,8 @@ import java.util.Collection;
 @Validated
 public class BookingController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final BookingService bookingService;
 
     public BookingController(@Autowired BookingService bookingService) {
@@ -46,20 +50,32 @@ public class BookingController {
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public Collection<BookingDtoCreate> getBookingsOwner(@RequestHeader("X-Sharer-User-Id")  Long userId,
-                                                         @RequestParam(defaultValue = "ALL") String state,
-                                                         @RequestParam(value = "from", required = false) Long from,
-                                                         @RequestParam(value = "size", required = false) Long size) {
-        return bookingService.getBookingsByState(userId, state, from, size);
+    public ResponseEntity<Collection<BookingDtoCreate>> getBookingsOwner(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(value = "from", required = false) Long from,
+            @RequestParam(value = "size", required = false) Long size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        return toResponse(bookingService.getBookingsByState(userId, state, from, size, cursor));
     }
 
     @GetMapping("/owner")
     @ResponseStatus(HttpStatus.OK)
-    public Collection<BookingDtoCreate> getBookingsItemsOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                              @RequestParam(defaultValue = "ALL") String state,
-                                                              @RequestParam(value = "from", required = false) Long from,
-                                                              @RequestParam(value = "size", required = false) Long size) {
-        return bookingService.getBookingsItemsByOwner(userId, state, from, size);
+    public ResponseEntity<Collection<BookingDtoCreate>> getBookingsItemsOwner(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(value = "from", required = false) Long from,
+            @RequestParam(value = "size", required = false) Long size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        return toResponse(bookingService.getBookingsItemsByOwner(userId, state, from, size, cursor));
+    }
+
+    private static ResponseEntity<Collection<BookingDtoCreate>> toResponse(BookingSlice slice) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (slice.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, slice.getNextCursor());
+        }
+        return response.body(slice.getBookings());
     }
 
 }
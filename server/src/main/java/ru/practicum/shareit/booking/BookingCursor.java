@@ -0,0 +1,43 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.exceptions.InvalidDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+/**
+ * Position of the last booking of a page in the (start desc, id desc) order.
+ * Clients get it as an opaque token and send it back to read the next page.
+ */
+@Data
+@AllArgsConstructor
+public class BookingCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private Timestamp start;
+    private Long id;
+
+    public static BookingCursor of(Booking booking) {
+        return new BookingCursor(booking.getStart(), booking.getId());
+    }
+
+    public String encode() {
+        String raw = id + SEPARATOR + start;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookingCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new BookingCursor(Timestamp.valueOf(raw.substring(separator + 1)),
+                    Long.valueOf(raw.substring(0, separator)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidDataException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking;
+
+import java.util.Optional;
+
+public enum BookingState {
+
+    ALL,
+    CURRENT,
+    FUTURE,
+    PAST,
+    REJECTED,
+    WAITING;
+
+    public static Optional<BookingState> from(String stringState) {
+        for (BookingState state : values()) {
+            if (state.name().equalsIgnoreCase(stringState)) {
+                return Optional.of(state);
+            }
+        }
+        return Optional.empty();
+    }
+}
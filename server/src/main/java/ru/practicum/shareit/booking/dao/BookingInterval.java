@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dao;
+
+import java.sql.Timestamp;
+
+public interface BookingInterval {
+
+    Long getId();
+
+    Timestamp getStart();
+
+    Timestamp getEnd();
+}
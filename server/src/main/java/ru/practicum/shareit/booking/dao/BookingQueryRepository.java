@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.dao;
+
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.BookingRole;
+import ru.practicum.shareit.booking.BookingState;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingQueryRepository {
+
+    List<Booking> findBookings(BookingRole role, Long userId, BookingState state, LocalDateTime now,
+                               BookingCursor after, int offset, Integer limit);
+}
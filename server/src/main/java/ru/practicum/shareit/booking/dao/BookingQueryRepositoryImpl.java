@@ -0,0 +1,88 @@
+package ru.practicum.shareit.booking.dao;
+
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.BookingRole;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.StatusOfBooking;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds the booking list query for a (role, state) pair. Each shape renders to a fixed JPQL string with
+ * bind parameters only, so Hibernate's query plan cache and the JDBC prepared statement are reused across calls.
+ * Pages after a {@link BookingCursor} seek past the (start, id) key instead of skipping rows with an offset.
+ */
+public class BookingQueryRepositoryImpl implements BookingQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final Map<String, String> queries = new ConcurrentHashMap<>();
+
+    @Override
+    public List<Booking> findBookings(BookingRole role, Long userId, BookingState state, LocalDateTime now,
+                                      BookingCursor after, int offset, Integer limit) {
+        boolean seek = after != null;
+        String jpql = queries.computeIfAbsent(role + ":" + state + ":" + seek, key -> compile(role, state, seek));
+        TypedQuery<Booking> query = entityManager.createQuery(jpql, Booking.class)
+                .setParameter("userId", userId);
+        switch (state) {
+            case CURRENT:
+            case PAST:
+            case FUTURE:
+                query.setParameter("now", Timestamp.valueOf(now));
+                break;
+            case WAITING:
+                query.setParameter("status", StatusOfBooking.WAITING);
+                break;
+            case REJECTED:
+                query.setParameter("status", StatusOfBooking.REJECTED);
+                break;
+            default:
+                break;
+        }
+        if (seek) {
+            query.setParameter("afterStart", after.getStart())
+                    .setParameter("afterId", after.getId());
+        }
+        query.setFirstResult(offset);
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+        return query.getResultList();
+    }
+
+    static String compile(BookingRole role, BookingState state, boolean seek) {
+        StringBuilder jpql = new StringBuilder("select b from Booking b join fetch b.item i join fetch b.booker bk ");
+        jpql.append(role == BookingRole.OWNER ? "where i.owner.id = :userId" : "where bk.id = :userId");
+        switch (state) {
+            case CURRENT:
+                jpql.append(" and b.start < :now and b.end > :now");
+                break;
+            case PAST:
+                jpql.append(" and b.end < :now");
+                break;
+            case FUTURE:
+                jpql.append(" and b.start > :now");
+                break;
+            case WAITING:
+            case REJECTED:
+                jpql.append(" and b.status = :status");
+                break;
+            default:
+                break;
+        }
+        if (seek) {
+            jpql.append(" and (b.start < :afterStart or (b.start = :afterStart and b.id < :afterId))");
+        }
+        return jpql.append(" order by b.start desc, b.id desc").toString();
+    }
+}
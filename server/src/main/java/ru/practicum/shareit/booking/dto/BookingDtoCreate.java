@@ -5,8 +5,6 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import ru.practicum.shareit.booking.StatusOfBooking;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.User;
 
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
@@ -26,7 +24,7 @@ public class BookingDtoCreate {
     @NotNull
     private LocalDateTime end;
     @NotNull
-    private Item item;
-    private User booker;
+    private BookingItemDto item;
+    private BookerDto booker;
     private StatusOfBooking status;
 }
@@ -4,7 +4,6 @@ import ru.practicum.shareit.booking.Booking;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.List;
 
 public class BookingToDto {
@@ -26,22 +25,13 @@ public class BookingToDto {
                 booking.getId(),
                 booking.getStart().toLocalDateTime(),
                 booking.getEnd().toLocalDateTime(),
-                booking.getItem(),
-                booking.getBooker(),
+                new BookingItemDto(booking.getItem().getId(), booking.getItem().getName()),
+                new BookerDto(booking.getBooker().getId()),
                 booking.getStatus()
         );
     }
 
     public static Collection<BookingDtoCreate> toBookingDtoCreateCollection(Collection<Booking> bookings) {
-        List<BookingDtoCreate> bookingDtoCreates = new ArrayList<>();
-        for (Booking booking : bookings) {
-            bookingDtoCreates.add(toBookingDtoCreate(booking));
-        }
-        bookingDtoCreates.sort(Comparator.comparing(BookingDtoCreate::getStart).reversed());
-        return bookingDtoCreates;
-    }
-
-    public static Collection<BookingDtoCreate> toBookingDtoCreateCollectionCurr(Collection<Booking> bookings) {
         List<BookingDtoCreate> bookingDtoCreates = new ArrayList<>();
         for (Booking booking : bookings) {
             bookingDtoCreates.add(toBookingDtoCreate(booking));
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.booking.dto.BookingDtoCreate;
+
+/**
+ * Published by the booking service when an owner approves or rejects a booking.
+ */
+@Data
+@AllArgsConstructor
+public class BookingStatusChangedEvent {
+
+    private BookingDtoCreate booking;
+}
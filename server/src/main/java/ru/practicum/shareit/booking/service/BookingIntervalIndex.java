@@ -0,0 +1,107 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.StatusOfBooking;
+import ru.practicum.shareit.booking.dao.BookingInterval;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory per item index of WAITING and APPROVED bookings used for overlap checks.
+ * Items are loaded lazily and reloaded after {@link #RELOAD_INTERVAL}, the database stays the source of truth:
+ * a conflict found in memory is confirmed with a query before it is reported.
+ */
+@Slf4j
+@Component
+public class BookingIntervalIndex {
+
+    public static final Set<StatusOfBooking> BLOCKING_STATUSES =
+            EnumSet.of(StatusOfBooking.WAITING, StatusOfBooking.APPROVED);
+
+    private static final Duration RELOAD_INTERVAL = Duration.ofMinutes(10);
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, ItemIntervals> items = new ConcurrentHashMap<>();
+
+    public BookingIntervalIndex(@Autowired BookingRepository bookingRepository) {
+        this.bookingRepository = bookingRepository;
+    }
+
+    public boolean hasOverlap(Long itemId, Timestamp start, Timestamp end) {
+        ItemIntervals intervals = intervals(itemId);
+        boolean overlaps;
+        synchronized (intervals) {
+            overlaps = intervals.tree.overlaps(start, end);
+        }
+        if (overlaps && !bookingRepository.existsOverlapping(itemId, BLOCKING_STATUSES, start, end)) {
+            log.debug("Stale booking intervals for item {}, reloading", itemId);
+            items.remove(itemId);
+            return false;
+        }
+        return overlaps;
+    }
+
+    public void update(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        ItemIntervals intervals = items.get(itemId);
+        if (intervals != null) {
+            synchronized (intervals) {
+                intervals.tree.remove(booking.getId(), booking.getStart());
+                if (BLOCKING_STATUSES.contains(booking.getStatus())) {
+                    intervals.tree.insert(booking.getId(), booking.getStart(), booking.getEnd());
+                }
+            }
+        }
+        evictOnRollback(itemId);
+    }
+
+    public void evict(Long itemId) {
+        items.remove(itemId);
+    }
+
+    private ItemIntervals intervals(Long itemId) {
+        return items.compute(itemId, (id, intervals) ->
+                intervals == null || intervals.loadedAt.plus(RELOAD_INTERVAL).isBefore(LocalDateTime.now())
+                        ? load(id) : intervals);
+    }
+
+    private ItemIntervals load(Long itemId) {
+        ItemIntervals intervals = new ItemIntervals();
+        for (BookingInterval interval : bookingRepository.findIntervalsByItemId(itemId, BLOCKING_STATUSES,
+                Timestamp.valueOf(intervals.loadedAt))) {
+            intervals.tree.insert(interval.getId(), interval.getStart(), interval.getEnd());
+        }
+        return intervals;
+    }
+
+    private void evictOnRollback(Long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    evict(itemId);
+                }
+            }
+        });
+    }
+
+    private static class ItemIntervals {
+        private final BookingIntervalTree tree = new BookingIntervalTree();
+        private final LocalDateTime loadedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,167 @@
+package ru.practicum.shareit.booking.service;
+
+import java.sql.Timestamp;
+
+/**
+ * AVL tree of half-open booking intervals [start, end) ordered by (start, id).
+ * Every node keeps the max end of its subtree, so an overlap lookup walks a single root-to-leaf path.
+ * Not thread-safe, callers synchronize on the tree.
+ */
+class BookingIntervalTree {
+
+    private Node root;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void insert(Long id, Timestamp start, Timestamp end) {
+        root = insert(root, id, start, end);
+    }
+
+    void remove(Long id, Timestamp start) {
+        root = remove(root, id, start);
+    }
+
+    boolean overlaps(Timestamp start, Timestamp end) {
+        Node node = root;
+        while (node != null) {
+            if (node.start.before(end) && node.end.after(start)) {
+                return true;
+            }
+            if (node.left != null && node.left.maxEnd.after(start)) {
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return false;
+    }
+
+    private Node insert(Node node, Long id, Timestamp start, Timestamp end) {
+        if (node == null) {
+            size++;
+            return new Node(id, start, end);
+        }
+        int cmp = compare(id, start, node);
+        if (cmp < 0) {
+            node.left = insert(node.left, id, start, end);
+        } else if (cmp > 0) {
+            node.right = insert(node.right, id, start, end);
+        } else {
+            node.end = end;
+        }
+        return balance(node);
+    }
+
+    private Node remove(Node node, Long id, Timestamp start) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(id, start, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, id, start);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, id, start);
+        } else {
+            size--;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node min = node.right;
+            while (min.left != null) {
+                min = min.left;
+            }
+            node.right = removeMin(node.right);
+            min.right = node.right;
+            min.left = node.left;
+            node = min;
+        }
+        return balance(node);
+    }
+
+    private Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private static int compare(Long id, Timestamp start, Node node) {
+        int cmp = start.compareTo(node.start);
+        return cmp != 0 ? cmp : id.compareTo(node.id);
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        node.maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.after(node.maxEnd)) {
+            node.maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.after(node.maxEnd)) {
+            node.maxEnd = node.right.maxEnd;
+        }
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static class Node {
+        private final Long id;
+        private final Timestamp start;
+        private Timestamp end;
+        private Timestamp maxEnd;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        Node(Long id, Timestamp start, Timestamp end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+}
@@ -2,8 +2,7 @@ package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoCreate;
-
-import java.util.Collection;
+import ru.practicum.shareit.booking.dto.BookingSlice;
 
 public interface BookingService {
     BookingDtoCreate createBooking(Long userId, BookingDto booking);
@@ -12,7 +11,7 @@ public interface BookingService {
 
     BookingDtoCreate getBookingById(Long userId, Long id);
 
-    Collection<BookingDtoCreate> getBookingsByState(Long userId, String state, Long from, Long size);
+    BookingSlice getBookingsByState(Long userId, String state, Long from, Long size, String cursor);
 
-    Collection<BookingDtoCreate> getBookingsItemsByOwner(Long userId, String state, Long from, Long size);
+    BookingSlice getBookingsItemsByOwner(Long userId, String state, Long from, Long size, String cursor);
 }
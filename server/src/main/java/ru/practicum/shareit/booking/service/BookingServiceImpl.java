@@ -3,31 +3,34 @@ package ru.practicum.shareit.booking.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingCursor;
+import ru.practicum.shareit.booking.BookingRole;
+import ru.practicum.shareit.booking.BookingState;
 import ru.practicum.shareit.booking.StatusOfBooking;
 import ru.practicum.shareit.booking.dao.BookingRepository;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoCreate;
+import ru.practicum.shareit.booking.dto.BookingSlice;
 import ru.practicum.shareit.booking.dto.BookingToDto;
+import ru.practicum.shareit.booking.event.BookingStatusChangedEvent;
 import ru.practicum.shareit.exceptions.BadRequestException;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.InvalidDataException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.existence.EntityExistence;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.user.dao.UserRepository;
 
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -37,8 +40,12 @@ public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final EntityExistence entityExistence;
+    private final ApplicationEventPublisher eventPublisher;
 
-    private static final String SORT_BY_DATE = "start";
+    private static final String EXCLUSION_VIOLATION = "23P01";
+    private static final int DEFAULT_PAGE_SIZE = 10;
 
     @Override
     @Transactional(isolation = Isolation.READ_COMMITTED)
@@ -52,12 +59,26 @@ public class BookingServiceImpl implements BookingService {
             books.setEnd(Timestamp.valueOf(booking.getEnd()));
             books.setStart(Timestamp.valueOf(booking.getStart()));
 
-            return BookingToDto.toBookingDtoCreate(bookingRepository.save(books));
+            Booking saved = bookingRepository.save(books);
+            bookingIntervalIndex.update(saved);
+            entityExistence.created(EntityExistence.Kind.BOOKING, saved.getId());
+            return BookingToDto.toBookingDtoCreate(saved);
+        } catch (DataIntegrityViolationException e) {
+            if (isOverlapViolation(e)) {
+                bookingIntervalIndex.evict(booking.getItemId());
+                throw new ConflictException("Item is already booked for these dates");
+            }
+            throw new NotFoundException("No user or item");
         } catch (Exception e) {
             throw new NotFoundException("No user or item");
         }
     }
 
+    private static boolean isOverlapViolation(DataIntegrityViolationException e) {
+        Throwable cause = e.getMostSpecificCause();
+        return cause instanceof SQLException && EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState());
+    }
+
     public void check(Long userId, BookingDto booking) {
         if (booking.getStart() == null || booking.getStart().equals(booking.getEnd())) {
             throw new BadRequestException("Start is null or equal End");
@@ -65,10 +86,10 @@ public class BookingServiceImpl implements BookingService {
         if (booking.getEnd() == null) {
             throw new BadRequestException("End is null");
         }
-        if (!userRepository.existsById(userId)) {
+        if (!entityExistence.exists(EntityExistence.Kind.USER, userId)) {
             throw new NotFoundException("User Not Found");
         }
-        if (!itemRepository.existsById(booking.getItemId())) {
+        if (!entityExistence.exists(EntityExistence.Kind.ITEM, booking.getItemId())) {
             throw new NotFoundException("Item Not Found");
         }
         if (booking.getEnd().isBefore(LocalDateTime.now())) {
@@ -86,14 +107,17 @@ public class BookingServiceImpl implements BookingService {
         if (itemRepository.getById(booking.getItemId()).getOwner().getId().equals(userId)) {
             throw new NotFoundException("You cant Booking your Item");
         }
+        if (bookingIntervalIndex.hasOverlap(booking.getItemId(), Timestamp.valueOf(booking.getStart()),
+                Timestamp.valueOf(booking.getEnd()))) {
+            throw new ConflictException("Item is already booked for these dates");
+        }
 
     }
 
     @Override
     @Transactional(isolation = Isolation.READ_COMMITTED)
     public BookingDtoCreate updateBooking(Long userId, Long id, Boolean approved) {
-        checkUserIdAndBookingId(userId, id);
-        Booking booking = bookingRepository.getById(id);
+        Booking booking = getBookingWithUserCheck(userId, id);
 
         if (booking.getStatus().equals(StatusOfBooking.APPROVED)) {
             throw new BadRequestException("Booking already APPROVED");
@@ -106,16 +130,19 @@ public class BookingServiceImpl implements BookingService {
         } else {
             booking.setStatus(StatusOfBooking.REJECTED);
         }
-        return BookingToDto.toBookingDtoCreate(bookingRepository.save(booking));
+        Booking saved = bookingRepository.save(booking);
+        bookingIntervalIndex.update(saved);
+        BookingDtoCreate savedDto = BookingToDto.toBookingDtoCreate(saved);
+        eventPublisher.publishEvent(new BookingStatusChangedEvent(savedDto));
+        return savedDto;
     }
 
     @Override
     @Transactional(isolation = Isolation.READ_COMMITTED, readOnly = true)
     public BookingDtoCreate getBookingById(Long userId, Long id) {
-        checkUserIdAndBookingId(userId, id);
-        Booking booking = bookingRepository.getById(id);
+        Booking booking = getBookingWithUserCheck(userId, id);
         if (booking.getItem().getOwner().getId().equals(userId) || booking.getBooker().getId().equals(userId)) {
-            return BookingToDto.toBookingDtoCreate(bookingRepository.getById(id));
+            return BookingToDto.toBookingDtoCreate(booking);
         } else {
             throw new NotFoundException("No rules for booking");
         }
@@ -123,246 +150,59 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     @Transactional(isolation = Isolation.READ_COMMITTED, readOnly = true)
-    public Collection<BookingDtoCreate> getBookingsByState(Long userId, String state, Long from, Long size) {
-        if (userRepository.existsById(userId)) {
-            switch (state) {
-                case "ALL":
-                    if (from != null && size != null) {
-                        return pageAllBookings(userId, from, size);
-                    }
-                    List<Booking> bookingsAll = new ArrayList<>(bookingRepository.findByBooker_Id(userId));
-                    return BookingToDto.toBookingDtoCreateCollection(bookingsAll);
-                case "CURRENT":
-                    if (from != null && size != null) {
-                        return pageCurrentBookings(userId, from, size);
-                    }
-                    List<Booking> bookingsCur = new ArrayList<>(
-                            bookingRepository.findByBooker_IdAndEndIsAfterAndStartIsBeforeOrderByStartAsc(
-                                    userId, Timestamp.valueOf(LocalDateTime.now()),
-                                    Timestamp.valueOf(LocalDateTime.now())));
-                    return BookingToDto.toBookingDtoCreateCollectionCurr(bookingsCur);
-                case "PAST":
-                    if (from != null && size != null) {
-                        return pagePastBookings(userId, from, size);
-                    }
-                    List<Booking> bookingsPast = new ArrayList<>(
-                            bookingRepository.findByBooker_IdAndEndIsBefore(userId,
-                                    Timestamp.valueOf(LocalDateTime.now())));
-                    return BookingToDto.toBookingDtoCreateCollection(bookingsPast);
-                case "FUTURE":
-                    if (from != null && size != null) {
-                        return pageFutureBookings(userId, from, size);
-                    }
-                    List<Booking> bookingsFuture = new ArrayList<>(
-                            bookingRepository.findByBooker_IdAndStartIsAfter(userId,
-                                    Timestamp.valueOf(LocalDateTime.now())));
-                    return BookingToDto.toBookingDtoCreateCollection(bookingsFuture);
-                case "WAITING":
-                    if (from != null && size != null) {
-                        return pageWaitingBookings(userId, from, size);
-                    }
-                    List<Booking> bookingsWait = new ArrayList<>(
-                            bookingRepository.findByBooker_IdAndStatusContainingIgnoreCase(
-                                    userId, StatusOfBooking.WAITING.toString()));
-                    return BookingToDto.toBookingDtoCreateCollection(bookingsWait);
-                case "REJECTED":
-                    if (from != null && size != null) {
-                        return pageRejectedBookings(userId, from, size);
-                    }
-                    List<Booking> bookingsRej = new ArrayList<>(
-                            bookingRepository.findByBooker_IdAndStatusContainingIgnoreCase(
-                                    userId, StatusOfBooking.REJECTED.toString()));
-                    return BookingToDto.toBookingDtoCreateCollection(bookingsRej);
-                default:
-                    throw new InvalidDataException("Unknown state: " + state);
-            }
-        } else {
+    public BookingSlice getBookingsByState(Long userId, String state, Long from, Long size, String cursor) {
+        if (!entityExistence.exists(EntityExistence.Kind.USER, userId)) {
             throw new NotFoundException("Not Found User");
         }
-    }
-
-    public Collection<BookingDtoCreate> pageCurrentBookings(Long userId, Long from, Long size) {
-        Sort sortByDate = Sort.by(Sort.Direction.DESC, SORT_BY_DATE);
-        Pageable page = PageRequest.of(Math.toIntExact(from / size), Math.toIntExact(size), sortByDate);
-
-        Page<Booking> bookingsPage = bookingRepository.findByBooker_IdAndEndIsAfterAndStartIsBeforeOrderByStartAsc(
-                userId, Timestamp.valueOf(LocalDateTime.now()),
-                Timestamp.valueOf(LocalDateTime.now()), page);
-        return new ArrayList<>(BookingToDto.toBookingDtoCreateCollectionCurr(bookingsPage.get()
-                .collect(Collectors.toList())));
-    }
-
-    public Collection<BookingDtoCreate> pageAllBookings(Long userId, Long from, Long size) {
-        Sort sortByDate = Sort.by(Sort.Direction.DESC, SORT_BY_DATE);
-        Pageable page = PageRequest.of(Math.toIntExact(from / size), Math.toIntExact(size), sortByDate);
-
-        Page<Booking> bookingsPage = bookingRepository.findByBooker_Id(userId, page);
-        return new ArrayList<>(BookingToDto.toBookingDtoCreateCollection(bookingsPage.get()
-                .collect(Collectors.toList())));
-    }
-
-    public Collection<BookingDtoCreate> pagePastBookings(Long userId, Long from, Long size) {
-        Sort sortByDate = Sort.by(Sort.Direction.DESC, SORT_BY_DATE);
-        Pageable page = PageRequest.of(Math.toIntExact(from / size), Math.toIntExact(size), sortByDate);
-
-        Page<Booking> bookingsPage = bookingRepository.findByBooker_IdAndEndIsBefore(userId,
-                Timestamp.valueOf(LocalDateTime.now()), page);
-        return new ArrayList<>(BookingToDto.toBookingDtoCreateCollection(bookingsPage.get()
-                .collect(Collectors.toList())));
-    }
-
-    public Collection<BookingDtoCreate> pageFutureBookings(Long userId, Long from, Long size) {
-        Sort sortByDate = Sort.by(Sort.Direction.DESC, SORT_BY_DATE);
-        Pageable page = PageRequest.of(Math.toIntExact(from / size), Math.toIntExact(size), sortByDate);
-
-        Page<Booking> bookingsPage = bookingRepository.findByBooker_IdAndStartIsAfter(userId,
-                Timestamp.valueOf(LocalDateTime.now()), page);
-        return new ArrayList<>(BookingToDto.toBookingDtoCreateCollection(bookingsPage.get()
-                .collect(Collectors.toList())));
-    }
-
-    public Collection<BookingDtoCreate> pageWaitingBookings(Long userId, Long from, Long size) {
-        Sort sortByDate = Sort.by(Sort.Direction.DESC, SORT_BY_DATE);
-        Pageable page = PageRequest.of(Math.toIntExact(from / size), Math.toIntExact(size), sortByDate);
-
-        Page<Booking> bookingsPage = bookingRepository.findByBookerAndStatusContaining(
-                userId, StatusOfBooking.WAITING.toString(), page);
-        return new ArrayList<>(BookingToDto.toBookingDtoCreateCollection(bookingsPage.get()
-                .collect(Collectors.toList())));
-    }
-
-    public Collection<BookingDtoCreate> pageRejectedBookings(Long userId, Long from, Long size) {
-        Sort sortByDate = Sort.by(Sort.Direction.DESC, SORT_BY_DATE);
-        Pageable page = PageRequest.of(Math.toIntExact(from / size), Math.toIntExact(size), sortByDate);
-
-        Page<Booking> bookingsPage = bookingRepository.findByBookerAndStatusContaining(
-                userId, StatusOfBooking.REJECTED.toString(), page);
-        return new ArrayList<>(BookingToDto.toBookingDtoCreateCollection(bookingsPage.get()
-                .collect(Collectors.toList())));
+        return findBookings(BookingRole.BOOKER, userId, state, from, size, cursor);
     }
 
     @Override
     @Transactional(isolation = Isolation.READ_COMMITTED, readOnly = true)
-    public Collection<BookingDtoCreate> getBookingsItemsByOwner(Long userId, String state, Long from, Long size) {
-        if (userRepository.existsById(userId)) {
-            switch (state) {
-                case "ALL":
-                    if (from != null && size != null) {
-                        return pageAllBookingsOwner(userId, from, size);
-                    }
-                    List<Booking> bookingsAll = new ArrayList<>(bookingRepository.getBookingItemsByOwner_Id(userId));
-                    return BookingToDto.toBookingDtoCreateCollection(bookingsAll);
-                case "CURRENT":
-                    if (from != null && size != null) {
-                        return pageCurrentBookingsOwner(userId, from, size);
-                    }
-                    List<Booking> bookingsCur = new ArrayList<>(bookingRepository
-                            .getBookingItemsByOwner_IdCurrent(userId,
-                                    Timestamp.valueOf(LocalDateTime.now()),
-                                    Timestamp.valueOf(LocalDateTime.now())));
-                    return BookingToDto.toBookingDtoCreateCollection(bookingsCur);
-                case "PAST":
-                    if (from != null && size != null) {
-                        return pagePastBookingsOwner(userId, from, size);
-                    }
-                    List<Booking> bookingsPast = new ArrayList<>(bookingRepository
-                            .getBookingItemsByOwner_IdPast(userId, Timestamp.valueOf(LocalDateTime.now())));
-                    return BookingToDto.toBookingDtoCreateCollection(bookingsPast);
-                case "FUTURE":
-                    if (from != null && size != null) {
-                        return pageFutureBookingsOwner(userId, from, size);
-                    }
-                    List<Booking> bookingsFuture = new ArrayList<>(bookingRepository
-                            .getBookingItemsByOwner_IdFuture(userId, Timestamp.valueOf(LocalDateTime.now())));
-                    return BookingToDto.toBookingDtoCreateCollection(bookingsFuture);
-                case "WAITING":
-                    if (from != null && size != null) {
-                        return pageWaitingBookingsOwner(userId, from, size);
-                    }
-                    List<Booking> bookingsWait = new ArrayList<>(
-                            bookingRepository.getBookingItemsByOwner_IdStatus(userId, StatusOfBooking.WAITING.toString())
-                    );
-                    return BookingToDto.toBookingDtoCreateCollection(bookingsWait);
-                case "REJECTED":
-                    if (from != null && size != null) {
-                        return pageRejectedBookingsOwner(userId, from, size);
-                    }
-                    List<Booking> bookingsRej = new ArrayList<>(
-                            bookingRepository.getBookingItemsByOwner_IdStatus(userId, StatusOfBooking.REJECTED.toString()));
-                    return BookingToDto.toBookingDtoCreateCollection(bookingsRej);
-                default:
-                    throw new InvalidDataException("Unknown state: " + state);
-            }
-        } else {
+    public BookingSlice getBookingsItemsByOwner(Long userId, String state, Long from, Long size, String cursor) {
+        if (!entityExistence.exists(EntityExistence.Kind.USER, userId)) {
             throw new NotFoundException("UserNotFound");
         }
+        return findBookings(BookingRole.OWNER, userId, state, from, size, cursor);
     }
 
-    public Collection<BookingDtoCreate> pageCurrentBookingsOwner(Long userId, Long from, Long size) {
-        Sort sortByDate = Sort.by(Sort.Direction.DESC, SORT_BY_DATE);
-        Pageable page = PageRequest.of(Math.toIntExact(from / size), Math.toIntExact(size), sortByDate);
-
-        Page<Booking> bookingsPage = bookingRepository
-                .getBookingItemsByOwner_IdCurrent(userId,
-                        Timestamp.valueOf(LocalDateTime.now()),
-                        Timestamp.valueOf(LocalDateTime.now()), page);
-        return new ArrayList<>(BookingToDto.toBookingDtoCreateCollection(bookingsPage.get()
-                .collect(Collectors.toList())));
-    }
-
-    public Collection<BookingDtoCreate> pageAllBookingsOwner(Long userId, Long from, Long size) {
-        Sort sortByDate = Sort.by(Sort.Direction.DESC, SORT_BY_DATE);
-        Pageable page = PageRequest.of(Math.toIntExact(from / size), Math.toIntExact(size), sortByDate);
-        Page<Booking> bookingsPage = bookingRepository.getBookingItemsByOwner_Id(userId, page);
-        return new ArrayList<>(BookingToDto.toBookingDtoCreateCollection(bookingsPage.get()
-                .collect(Collectors.toList())));
-    }
-
-    public Collection<BookingDtoCreate> pagePastBookingsOwner(Long userId, Long from, Long size) {
-        Sort sortByDate = Sort.by(Sort.Direction.DESC, SORT_BY_DATE);
-        Pageable page = PageRequest.of(Math.toIntExact(from / size), Math.toIntExact(size), sortByDate);
-
-        Page<Booking> bookingsPage = bookingRepository
-                .getBookingItemsByOwner_IdPast(userId, Timestamp.valueOf(LocalDateTime.now()), page);
-        return new ArrayList<>(BookingToDto.toBookingDtoCreateCollection(bookingsPage.get()
-                .collect(Collectors.toList())));
-    }
-
-    public Collection<BookingDtoCreate> pageFutureBookingsOwner(Long userId, Long from, Long size) {
-        Sort sortByDate = Sort.by(Sort.Direction.DESC, SORT_BY_DATE);
-        Pageable page = PageRequest.of(Math.toIntExact(from / size), Math.toIntExact(size), sortByDate);
-
-        Page<Booking> bookingsPage = bookingRepository
-                .getBookingItemsByOwner_IdFuture(userId, Timestamp.valueOf(LocalDateTime.now()), page);
-        return new ArrayList<>(BookingToDto.toBookingDtoCreateCollection(bookingsPage.get()
-                .collect(Collectors.toList())));
-    }
-
-    public Collection<BookingDtoCreate> pageWaitingBookingsOwner(Long userId, Long from, Long size) {
-        Sort sortByDate = Sort.by(Sort.Direction.DESC, SORT_BY_DATE);
-        Pageable page = PageRequest.of(Math.toIntExact(from / size), Math.toIntExact(size), sortByDate);
+    private BookingSlice findBookings(BookingRole role, Long userId, String state, Long from, Long size,
+                                      String cursor) {
+        BookingState bookingState = BookingState.from(state)
+                .orElseThrow(() -> new InvalidDataException("Unknown state: " + state));
+        BookingCursor after = cursor != null ? BookingCursor.decode(cursor) : null;
+        int offset = from != null && after == null ? Math.toIntExact(from) : 0;
+        Integer limit = null;
+        if (size != null) {
+            limit = Math.toIntExact(size);
+        } else if (after != null) {
+            limit = DEFAULT_PAGE_SIZE;
+        }
 
-        Page<Booking> bookingsPage = bookingRepository
-                .getBookingItemsByOwner_IdStatus(userId, StatusOfBooking.WAITING.toString(), page);
-        return new ArrayList<>(BookingToDto.toBookingDtoCreateCollection(bookingsPage.get()
-                .collect(Collectors.toList())));
+        List<Booking> bookings = bookingRepository.findBookings(role, userId, bookingState, LocalDateTime.now(),
+                after, offset, limit != null ? limit + 1 : null);
+        String nextCursor = null;
+        if (limit != null && bookings.size() > limit) {
+            bookings = bookings.subList(0, limit);
+            nextCursor = BookingCursor.of(bookings.get(limit - 1)).encode();
+        }
+        return new BookingSlice(BookingToDto.toBookingDtoCreateCollection(bookings), nextCursor);
     }
 
-    public Collection<BookingDtoCreate> pageRejectedBookingsOwner(Long userId, Long from, Long size) {
-        Sort sortByDate = Sort.by(Sort.Direction.DESC, SORT_BY_DATE);
-        Pageable page = PageRequest.of(Math.toIntExact(from / size), Math.toIntExact(size), sortByDate);
-
-        Page<Booking> bookingsPage = bookingRepository
-                .getBookingItemsByOwner_IdStatus(userId, StatusOfBooking.REJECTED.toString(), page);
-        return new ArrayList<>(BookingToDto.toBookingDtoCreateCollection(bookingsPage.get()
-                .collect(Collectors.toList())));
+    private Booking getBookingWithUserCheck(Long userId, Long bookingId) {
+        Booking booking = bookingRepository.findDetailedById(bookingId)
+                .orElseThrow(() -> new NotFoundException("Not Found Booking"));
+        if (!entityExistence.exists(EntityExistence.Kind.USER, userId)) {
+            throw new NotFoundException("User Not Found");
+        }
+        return booking;
     }
 
     public void checkUserIdAndBookingId(Long userId, Long bookingId) {
-        if (!bookingRepository.existsById(bookingId)) {
+        if (!entityExistence.exists(EntityExistence.Kind.BOOKING, bookingId)) {
             throw new NotFoundException("Not Found Booking");
         }
-        if (!userRepository.existsById(userId)) {
+        if (!entityExistence.exists(EntityExistence.Kind.USER, userId)) {
             throw new NotFoundException("User Not Found");
         }
     }
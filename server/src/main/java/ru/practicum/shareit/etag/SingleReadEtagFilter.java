@@ -0,0 +1,41 @@
+package ru.practicum.shareit.etag;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Strong ETags for reads of a single item, booking or request. The tag is a hash of the response body, so it changes
+ * with anything the body shows, including bookings and comments of an item; a request whose If-None-Match carries
+ * the current tag gets 304 and no body. The body depends on the user asking, hence Vary on the user header.
+ */
+@Component
+public class SingleReadEtagFilter extends ShallowEtagHeaderFilter {
+
+    private static final Pattern SINGLE_READ = Pattern.compile("/(items|bookings|requests)/\\d+");
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod())
+                || !SINGLE_READ.matcher(urlPathHelper.getPathWithinApplication(request)).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        response.addHeader(HttpHeaders.VARY, USER_HEADER);
+        super.doFilterInternal(request, response, filterChain);
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.existence;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of long ids sized for an expected number of ids and a false positive rate.
+ * {@link #mightContain} never answers false for an id that was {@link #put}. Safe for concurrent use.
+ */
+class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long size;
+    private final int hashes;
+
+    BloomFilter(long expectedIds, double falsePositiveRate) {
+        long expected = Math.max(expectedIds, 1);
+        long optimalSize = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        size = Math.max(64, (optimalSize + 63) / 64 * 64);
+        hashes = Math.max(1, (int) Math.round((double) size / expected * Math.log(2)));
+        bits = new AtomicLongArray((int) (size / 64));
+    }
+
+    void put(long id) {
+        long hash1 = mix(id);
+        long hash2 = mix(hash1);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, size);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(long id) {
+        long hash1 = mix(id);
+        long hash2 = mix(hash1);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, size);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,209 @@
+package ru.practicum.shareit.existence;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.user.dao.UserRepository;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Answers "does this user/item/booking id exist" mostly without a query. Every id known at the last load or created
+ * here since is in a Bloom filter, so a miss is a definite no for an id up to the watermark. Recent positive answers
+ * sit in a small cache. Everything else falls through to the database, including ids above the watermark that
+ * another instance may have created. Positives expire quickly so deletions made elsewhere are noticed.
+ * <p>
+ * Identity ids are taken in order but committed in any order, so a load can see an id while a lower one is still
+ * uncommitted and show up only later. The watermark is therefore the highest id of the load before, made at least
+ * {@link #GRACE} earlier, which is longer than any transaction that creates an entity. Loads run on a schedule off
+ * the request path, one at a time; until the first one finishes every question goes to the database.
+ */
+@Slf4j
+@Component
+public class EntityExistence {
+
+    public enum Kind {
+        USER, ITEM, BOOKING
+    }
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int POSITIVE_CACHE_SIZE = 10_000;
+    private static final Duration POSITIVE_TTL = Duration.ofMinutes(1);
+    private static final Duration GRACE = Duration.ofMinutes(1);
+    private static final Duration RELOAD_INTERVAL = Duration.ofMinutes(10);
+
+    private final Map<Kind, Ids> ids = new EnumMap<>(Kind.class);
+    private final ScheduledExecutorService reloads = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "entity-existence-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EntityExistence(@Autowired UserRepository userRepository,
+                           @Autowired ItemRepository itemRepository,
+                           @Autowired BookingRepository bookingRepository) {
+        ids.put(Kind.USER, new Ids(Kind.USER, userRepository, userRepository::findAllIds));
+        ids.put(Kind.ITEM, new Ids(Kind.ITEM, itemRepository, itemRepository::findAllIds));
+        ids.put(Kind.BOOKING, new Ids(Kind.BOOKING, bookingRepository, bookingRepository::findAllIds));
+    }
+
+    public boolean exists(Kind kind, Long id) {
+        return id != null && ids.get(kind).exists(id);
+    }
+
+    /**
+     * Registers an id saved in the current transaction. It is known to the filter at once, a rollback only leaves
+     * a false positive there, and it is cached as existing once the transaction commits.
+     */
+    public void created(Kind kind, Long id) {
+        ids.get(kind).created(id);
+    }
+
+    public void deleted(Kind kind, Long id) {
+        ids.get(kind).deleted(id);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reload();
+        // the second load comes after the grace period, so the first watermark is not held back for long
+        reloads.scheduleWithFixedDelay(() -> {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                log.warn("Existence filters not reloaded", e);
+            }
+        }, GRACE.toMillis(), RELOAD_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void reload() {
+        ids.values().forEach(Ids::reload);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reloads.shutdownNow();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static class Ids {
+        private final Kind kind;
+        private final JpaRepository<?, Long> repository;
+        private final Supplier<List<Long>> loader;
+        private final Cache<Long, Boolean> positives = Caffeine.newBuilder()
+                .maximumSize(POSITIVE_CACHE_SIZE)
+                .expireAfterWrite(POSITIVE_TTL)
+                .build();
+        private volatile Snapshot snapshot;
+        // ids created while a load runs, which it may not see; null when no load runs
+        private List<Long> createdDuringLoad;
+
+        Ids(Kind kind, JpaRepository<?, Long> repository, Supplier<List<Long>> loader) {
+            this.kind = kind;
+            this.repository = repository;
+            this.loader = loader;
+        }
+
+        boolean exists(long id) {
+            Snapshot current = snapshot;
+            if (current != null && id <= current.watermark && !current.bloom.mightContain(id)) {
+                return false;
+            }
+            if (positives.getIfPresent(id) != null) {
+                return true;
+            }
+            boolean exists = repository.existsById(id);
+            if (exists) {
+                afterCommit(() -> positives.put(id, Boolean.TRUE));
+            }
+            return exists;
+        }
+
+        void created(Long id) {
+            synchronized (this) {
+                if (snapshot != null) {
+                    snapshot.bloom.put(id);
+                }
+                if (createdDuringLoad != null) {
+                    createdDuringLoad.add(id);
+                }
+            }
+            afterCommit(() -> positives.put(id, Boolean.TRUE));
+        }
+
+        void deleted(Long id) {
+            positives.invalidate(id);
+            afterCommit(() -> positives.invalidate(id));
+        }
+
+        void reload() {
+            synchronized (this) {
+                if (createdDuringLoad != null) {
+                    return;
+                }
+                createdDuringLoad = new ArrayList<>();
+            }
+            try {
+                List<Long> loaded = loader.get();
+                BloomFilter bloom = new BloomFilter(loaded.size() * 2L, FALSE_POSITIVE_RATE);
+                long highest = 0;
+                for (Long id : loaded) {
+                    bloom.put(id);
+                    highest = Math.max(highest, id);
+                }
+                synchronized (this) {
+                    createdDuringLoad.forEach(bloom::put);
+                    long watermark = snapshot != null ? snapshot.highest : 0;
+                    snapshot = new Snapshot(bloom, watermark, highest);
+                }
+                log.info("Existence filter for {} loaded with {} ids", kind, loaded.size());
+            } finally {
+                synchronized (this) {
+                    createdDuringLoad = null;
+                }
+            }
+        }
+    }
+
+    private static class Snapshot {
+        private final BloomFilter bloom;
+        private final long watermark;
+        private final long highest;
+
+        Snapshot(BloomFilter bloom, long watermark, long highest) {
+            this.bloom = bloom;
+            this.watermark = watermark;
+            this.highest = highest;
+        }
+    }
+}
@@ -8,10 +8,12 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoById;
 import ru.practicum.shareit.item.dto.ItemDtoPatch;
+import ru.practicum.shareit.item.dto.ItemSearchDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.service.ItemService;
 
 import java.util.Collection;
+import java.util.List;
 
 @RestController
 @RequestMapping("/items")
@@ -64,10 +66,36 @@ public class ItemController {
     @ResponseStatus(HttpStatus.OK)
     public Collection<ItemDto> getSearchItems(@RequestParam(name = "text", required = false) String text,
                                               @RequestParam(value = "from", required = false) Long from,
-                                              @RequestParam(value = "size", required = false) Long size) {
+                                              @RequestParam(value = "size", required = false) Long size,
+                                              @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy) {
+        if (fuzzy) {
+            return itemService.getFuzzySearchItems(text, from, size);
+        }
         return itemService.getSearchItems(text, from, size);
     }
 
+    @GetMapping(value = "/search", params = "facets=true")
+    @ResponseStatus(HttpStatus.OK)
+    public ItemSearchDto getSearchItemsWithFacets(@RequestParam(name = "text", required = false) String text,
+                                                  @RequestParam(value = "from", required = false) Long from,
+                                                  @RequestParam(value = "size", required = false) Long size) {
+        return itemService.getSearchItemsWithFacets(text, from, size);
+    }
+
+    @GetMapping("/suggest")
+    @ResponseStatus(HttpStatus.OK)
+    public List<String> getSuggestions(@RequestParam(name = "prefix", required = false) String prefix,
+                                       @RequestParam(value = "size", required = false) Integer size) {
+        return itemService.getSuggestions(prefix, size);
+    }
+
+    @GetMapping("/{id}/similar")
+    @ResponseStatus(HttpStatus.OK)
+    public Collection<ItemDto> getSimilarItems(@PathVariable Long id,
+                                               @RequestParam(value = "size", required = false) Integer size) {
+        return itemService.getSimilarItems(id, size);
+    }
+
     @PostMapping("/{itemId}/comment")
     @ResponseStatus(HttpStatus.OK)
     public CommentDto addComment(@RequestHeader(value = "X-Sharer-User-Id") Long userId,
@@ -1,13 +1,19 @@
 package ru.practicum.shareit.item.dao;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
+    @EntityGraph(attributePaths = "user")
     List<Comment> findByItemId(Long itemId);
+
+    @EntityGraph(attributePaths = "user")
+    List<Comment> findByItemIdIn(Collection<Long> itemIds);
 }
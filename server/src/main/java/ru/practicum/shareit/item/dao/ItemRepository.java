@@ -2,40 +2,58 @@ package ru.practicum.shareit.item.dao;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.OwnerFacetDto;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
+    @Query("select i.id from Item i")
+    List<Long> findAllIds();
+
     List<Item> findAllByOwnerId(Long ownerId);
 
     Page<Item> findAllByOwnerId(Long ownerId, Pageable page);
 
-    @Query(value = "select i from Item i WHERE lower(i.name) LIKE lower(concat('%',?1,'%')) " +
-            "OR lower(i.description) LIKE lower(concat('%',?1,'%')) AND i.available = TRUE")
+    @Query(value = "select i from Item i WHERE i.available = TRUE " +
+            "AND (lower(i.name) LIKE lower(concat('%',?1,'%')) ESCAPE '\\' " +
+            "OR lower(i.description) LIKE lower(concat('%',?1,'%')) ESCAPE '\\') " +
+            "ORDER BY i.id")
     List<Item> getSearchItems(String text);
 
-    @Query(value = "select i from Item i WHERE lower(i.name) LIKE lower(concat('%',?1,'%')) " +
-            "OR lower(i.description) LIKE lower(concat('%',?1,'%')) AND i.available = TRUE")
-    Page<Item> getSearchItems(String text, Pageable page);
-
-    @Query(value = "select * from items i " +
-            "LEFT JOIN REQUESTS r ON i.REQUEST_ID  = r.ID " +
-            "WHERE r.REQUESTOR_ID  = ?1", nativeQuery = true)
-    List<Item> findAllByRequestorId(Long requestorId);
+    @Query(value = "select i from Item i WHERE i.available = TRUE " +
+            "AND (lower(i.name) LIKE lower(concat('%',?1,'%')) ESCAPE '\\' " +
+            "OR lower(i.description) LIKE lower(concat('%',?1,'%')) ESCAPE '\\') " +
+            "ORDER BY i.id")
+    Slice<Item> getSearchItems(String text, Pageable page);
+
+    @Query(value = "select count(i) as matched, " +
+            "coalesce(sum(case when i.available = TRUE then 1 else 0 end), 0) as available, " +
+            "coalesce(sum(case when i.available = TRUE and i.requestor.id is not null then 1 else 0 end), 0) " +
+            "as availableWithRequest from Item i " +
+            "WHERE lower(i.name) LIKE lower(concat('%',?1,'%')) ESCAPE '\\' " +
+            "OR lower(i.description) LIKE lower(concat('%',?1,'%')) ESCAPE '\\'")
+    ItemSearchCounts countSearchItems(String text);
+
+    @Query(value = "select new ru.practicum.shareit.item.dto.OwnerFacetDto(i.owner.id, count(i)) " +
+            "from Item i WHERE i.available = TRUE " +
+            "AND (lower(i.name) LIKE lower(concat('%',?1,'%')) ESCAPE '\\' " +
+            "OR lower(i.description) LIKE lower(concat('%',?1,'%')) ESCAPE '\\') " +
+            "group by i.owner.id order by count(i) desc, i.owner.id")
+    List<OwnerFacetDto> getSearchItemOwners(String text, Pageable page);
 
     @Query(value = "select * from items i " +
             "WHERE i.REQUEST_ID = ?1", nativeQuery = true)
     List<Item> findAllByRequestId(Long requestId);
 
-    @Query(value = "select i.ID, i.NAME, i.DESCRIPTION, i.IS_AVAILABLE, i.OWNER_ID, i.REQUEST_ID " +
-            "from items i " +
-            "LEFT JOIN REQUESTS r ON i.REQUEST_ID  = r.ID " +
-            "WHERE r.REQUESTOR_ID NOT IN (?1)", nativeQuery = true)
-    List<Item> findAllNotId(Long userId);
+    @Query("select i from Item i where i.requestor.id in :requestIds order by i.id")
+    List<Item> findAllByRequestIdIn(@Param("requestIds") Collection<Long> requestIds);
 }
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.dao;
+
+public interface ItemSearchCounts {
+
+    long getMatched();
+
+    long getAvailable();
+
+    long getAvailableWithRequest();
+}
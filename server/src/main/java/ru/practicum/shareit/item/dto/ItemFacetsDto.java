@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Counts over items matching the search text: availability over all of them,
+ * request and owner buckets over the available ones, i.e. over the search hits.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemFacetsDto {
+
+    private long available;
+    private long unavailable;
+    private long withRequest;
+    private long withoutRequest;
+    private List<OwnerFacetDto> owners;
+}
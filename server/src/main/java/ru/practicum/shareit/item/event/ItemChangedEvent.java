@@ -0,0 +1,20 @@
+package ru.practicum.shareit.item.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published by the item service when an item is created ({@code previous} is null),
+ * updated, or deleted ({@code current} is null).
+ */
+@Data
+@AllArgsConstructor
+public class ItemChangedEvent {
+
+    private ItemSnapshot previous;
+    private ItemSnapshot current;
+
+    public Long getItemId() {
+        return current != null ? current.getId() : previous.getId();
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.item.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.item.model.Item;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemSnapshot {
+
+    private Long id;
+    private String name;
+    private String description;
+    private Boolean available;
+    private Long ownerId;
+    private Long requestId;
+
+    public static ItemSnapshot of(Item item) {
+        return new ItemSnapshot(
+                item.getId(),
+                item.getName(),
+                item.getDescription(),
+                item.getAvailable(),
+                item.getOwner() != null ? item.getOwner().getId() : null,
+                item.getRequestor() != null ? item.getRequestor().getId() : null
+        );
+    }
+
+    public Item toItem() {
+        return new Item(id, name, description, available, null, null);
+    }
+}
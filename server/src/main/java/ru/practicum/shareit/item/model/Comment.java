@@ -25,10 +25,10 @@ public class Comment {
     @Column(name = "text", nullable = false)
     @NotBlank
     private String text;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id", nullable = false)
     private Item item;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id", nullable = false)
     private User user;
     @Column(name = "date_create", nullable = false)
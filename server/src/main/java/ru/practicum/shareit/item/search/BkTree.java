@@ -0,0 +1,113 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Burkhard-Keller tree of terms under Levenshtein distance. A lookup within distance d only descends into
+ * children whose edge distance lies in [dist - d, dist + d], so it visits a small part of the dictionary.
+ * Terms are never removed, callers filter dead terms and rebuild the tree when there are too many of them.
+ * Not thread-safe, callers guard it with a lock.
+ */
+class BkTree {
+
+    private Node root;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void add(String term) {
+        if (root == null) {
+            root = new Node(term);
+            size++;
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = distance(term, node.term, Integer.MAX_VALUE);
+            if (distance == 0) {
+                return;
+            }
+            Node child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node(term));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    List<String> search(String term, int maxDistance) {
+        List<String> found = new ArrayList<>();
+        if (root == null) {
+            return found;
+        }
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            int distance = distance(term, node.term, Integer.MAX_VALUE);
+            if (distance <= maxDistance) {
+                found.add(node.term);
+            }
+            for (int d = Math.max(1, distance - maxDistance); d <= distance + maxDistance; d++) {
+                Node child = node.children.get(d);
+                if (child != null) {
+                    stack.push(child);
+                }
+            }
+        }
+        return found;
+    }
+
+    void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /**
+     * Levenshtein distance, or any value above {@code limit} once the distance is known to exceed it.
+     */
+    static int distance(String a, String b, int limit) {
+        if (Math.abs(a.length() - b.length()) > limit) {
+            return limit + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static class Node {
+        private final String term;
+        private final Map<Integer, Node> children = new HashMap<>(4);
+
+        Node(String term) {
+            this.term = term;
+        }
+    }
+}
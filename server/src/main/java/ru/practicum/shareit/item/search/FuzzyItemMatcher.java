@@ -0,0 +1,178 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.event.ItemSnapshot;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typo-tolerant matching of available items. Terms of item names and descriptions are kept in a {@link BkTree}
+ * with posting sets of item ids; an item matches when every query term is within the allowed edit distance
+ * of one of its terms. Built from the database when the application is ready (or on the first lookup) and then
+ * follows committed item changes.
+ */
+@Slf4j
+@Component
+public class FuzzyItemMatcher {
+
+    static final int MAX_DISTANCE = 2;
+
+    private final ItemRepository itemRepository;
+    private final BkTree terms = new BkTree();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, Set<String>> termsByItem = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    public FuzzyItemMatcher(@Autowired ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    /**
+     * Ids of matching items in ascending order.
+     */
+    public List<Long> match(String text) {
+        ensureLoaded();
+        Set<String> query = terms(text);
+        if (query.isEmpty()) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            Set<Long> result = null;
+            for (String term : query) {
+                Set<Long> ids = new HashSet<>();
+                for (String similar : terms.search(term, maxDistance(term))) {
+                    ids.addAll(postings.getOrDefault(similar, Set.of()));
+                }
+                if (result == null) {
+                    result = ids;
+                } else {
+                    result.retainAll(ids);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return new ArrayList<>(new TreeSet<>(result));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            terms.clear();
+            postings.clear();
+            termsByItem.clear();
+            for (Item item : itemRepository.findAll()) {
+                put(ItemSnapshot.of(item));
+            }
+            loaded = true;
+            log.info("Fuzzy search dictionary built, {} items, {} terms", termsByItem.size(), postings.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            remove(event.getItemId());
+            if (event.getCurrent() != null) {
+                put(event.getCurrent());
+            }
+            if (terms.size() > Math.max(1024, 2 * postings.size())) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static int maxDistance(String term) {
+        if (term.length() < 4) {
+            return 0;
+        }
+        return term.length() < 8 ? 1 : MAX_DISTANCE;
+    }
+
+    static Set<String> terms(String text) {
+        Set<String> result = new HashSet<>();
+        if (text == null) {
+            return result;
+        }
+        for (String term : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!term.isEmpty()) {
+                result.add(term);
+            }
+        }
+        return result;
+    }
+
+    private void put(ItemSnapshot item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        Set<String> itemTerms = terms(item.getName());
+        itemTerms.addAll(terms(item.getDescription()));
+        termsByItem.put(item.getId(), itemTerms);
+        for (String term : itemTerms) {
+            postings.computeIfAbsent(term, key -> {
+                terms.add(key);
+                return new HashSet<>();
+            }).add(item.getId());
+        }
+    }
+
+    private void remove(Long itemId) {
+        Set<String> itemTerms = termsByItem.remove(itemId);
+        if (itemTerms == null) {
+            return;
+        }
+        for (String term : itemTerms) {
+            Set<Long> ids = postings.get(term);
+            ids.remove(itemId);
+            if (ids.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private void compact() {
+        terms.clear();
+        postings.keySet().forEach(terms::add);
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            rebuild();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemFacetsDto;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.event.ItemSnapshot;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory {@link ItemTrigramIndex} of all items behind {@link MemoryItemSearchEngine}. Built from the database
+ * when the application is ready and then follows committed item changes.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory")
+public class ItemMemoryIndex {
+
+    private final ItemRepository itemRepository;
+    private final ItemTrigramIndex index = new ItemTrigramIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    public ItemMemoryIndex(@Autowired ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    public List<ItemSnapshot> search(String text) {
+        lock.readLock().lock();
+        try {
+            return index.search(text);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public ItemFacetsDto facets(String text, int topOwners) {
+        lock.readLock().lock();
+        try {
+            return index.facets(text, topOwners);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            for (Item item : itemRepository.findAll()) {
+                index.put(ItemSnapshot.of(item));
+            }
+            loaded = true;
+            log.info("Item search index built, {} items", index.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            if (event.getCurrent() != null) {
+                index.put(event.getCurrent());
+            } else {
+                index.remove(event.getItemId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
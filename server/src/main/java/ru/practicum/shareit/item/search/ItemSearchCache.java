@@ -0,0 +1,265 @@
+package ru.practicum.shareit.item.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.event.ItemSnapshot;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Caches search result pages by (normalized text, offset, limit, fuzzy), bounded by the total number of cached items.
+ * A committed item change evicts only the pages whose query the previous or the new version of the item could match;
+ * a page loaded while a change was being committed is not stored. Evicts after the in-memory indexes have applied
+ * the change, so a reload never sees them stale.
+ * <p>
+ * Cached keys are indexed by their longest query term, which every match must satisfy: plain keys by the term
+ * itself, looked up with the substrings of the item's terms, fuzzy keys by the term's deletion variants within
+ * its edit distance, looked up with the item terms' variants within the largest distance. A change then checks only
+ * the keys indexed under the previous or the new version of the item instead of the whole cache. Index entries
+ * are dropped when their page leaves the cache, unless the key has been cached again meanwhile.
+ */
+@Component
+public class ItemSearchCache {
+
+    public static final String CACHE_NAME = "itemSearch";
+
+    private final Cache<SearchKey, Page> cache;
+    private final Map<String, Map<SearchKey, Page>> plainKeys = new ConcurrentHashMap<>();
+    private final Map<String, Map<SearchKey, Page>> fuzzyKeys = new ConcurrentHashMap<>();
+    private final Map<SearchKey, Page> termlessKeys = new ConcurrentHashMap<>();
+    private final AtomicInteger longestTerm = new AtomicInteger();
+    private final AtomicLong generation = new AtomicLong();
+
+    public ItemSearchCache(@Autowired MeterRegistry meterRegistry,
+                           @Value("${shareit.search.cache.max-weight:100000}") long maxWeight) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((SearchKey key, Page page) -> page.getItems().size() + 1)
+                .expireAfterWrite(Duration.ofMinutes(30))
+                .executor(Runnable::run)
+                .removalListener((SearchKey key, Page page, RemovalCause cause) -> unindex(key, page))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Cached page for the query, or the loader result for the normalized text.
+     */
+    public Collection<ItemDto> get(String text, int offset, Integer limit, boolean fuzzy,
+                                   Function<String, Collection<ItemDto>> loader) {
+        SearchKey key = new SearchKey(normalize(text), offset, limit, fuzzy);
+        Page cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached.getItems();
+        }
+        long loadedAt = generation.get();
+        Page loaded = new Page(List.copyOf(loader.apply(key.getText())));
+        if (generation.get() == loadedAt) {
+            // indexed before it is stored, so a change counted after the check below can find it
+            index(key, loaded);
+            cache.put(key, loaded);
+            if (generation.get() != loadedAt) {
+                cache.invalidate(key);
+            }
+        }
+        return loaded.getItems();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        generation.incrementAndGet();
+        Set<SearchKey> candidates = new HashSet<>();
+        collectCandidates(event.getPrevious(), candidates);
+        collectCandidates(event.getCurrent(), candidates);
+        for (SearchKey key : candidates) {
+            if (matches(key, event.getPrevious()) || matches(key, event.getCurrent())) {
+                cache.invalidate(key);
+            }
+        }
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    long indexedKeys() {
+        cache.cleanUp();
+        Set<SearchKey> keys = new HashSet<>(termlessKeys.keySet());
+        plainKeys.values().forEach(indexed -> keys.addAll(indexed.keySet()));
+        fuzzyKeys.values().forEach(indexed -> keys.addAll(indexed.keySet()));
+        return keys.size();
+    }
+
+    public static String normalize(String text) {
+        return text.trim().replaceAll("\\s+", " ");
+    }
+
+    private void index(SearchKey key, Page page) {
+        String anchor = anchor(key);
+        if (anchor == null) {
+            termlessKeys.put(key, page);
+            return;
+        }
+        longestTerm.accumulateAndGet(anchor.length(), Math::max);
+        Map<String, Map<SearchKey, Page>> index = key.isFuzzy() ? fuzzyKeys : plainKeys;
+        for (String bucket : buckets(key, anchor)) {
+            index.compute(bucket, (term, keys) -> {
+                Map<SearchKey, Page> indexed = keys == null ? new ConcurrentHashMap<>() : keys;
+                indexed.put(key, page);
+                return indexed;
+            });
+        }
+    }
+
+    /**
+     * Removes the key only while it still refers to the page that left the cache, a reload may have indexed it again.
+     */
+    private void unindex(SearchKey key, Page page) {
+        if (key == null || page == null) {
+            return;
+        }
+        String anchor = anchor(key);
+        if (anchor == null) {
+            termlessKeys.remove(key, page);
+            return;
+        }
+        Map<String, Map<SearchKey, Page>> index = key.isFuzzy() ? fuzzyKeys : plainKeys;
+        for (String bucket : buckets(key, anchor)) {
+            index.computeIfPresent(bucket, (term, keys) -> {
+                keys.remove(key, page);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private void collectCandidates(ItemSnapshot item, Set<SearchKey> candidates) {
+        if (item == null || !Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        candidates.addAll(termlessKeys.keySet());
+        int longest = longestTerm.get();
+        Set<String> itemTerms = FuzzyItemMatcher.terms(item.getName());
+        itemTerms.addAll(FuzzyItemMatcher.terms(item.getDescription()));
+        for (String term : itemTerms) {
+            // a plain query term is a substring of one item term, since both are split on the same characters
+            for (int start = 0; start < term.length(); start++) {
+                for (int end = start + 1; end <= Math.min(term.length(), start + longest); end++) {
+                    addIndexed(plainKeys, term.substring(start, end), candidates);
+                }
+            }
+            if (term.length() <= longest + FuzzyItemMatcher.MAX_DISTANCE) {
+                for (String variant : deletions(term, FuzzyItemMatcher.MAX_DISTANCE)) {
+                    addIndexed(fuzzyKeys, variant, candidates);
+                }
+            }
+        }
+    }
+
+    private static void addIndexed(Map<String, Map<SearchKey, Page>> index, String bucket,
+                                   Set<SearchKey> candidates) {
+        Map<SearchKey, Page> keys = index.get(bucket);
+        if (keys != null) {
+            candidates.addAll(keys.keySet());
+        }
+    }
+
+    private static String anchor(SearchKey key) {
+        String anchor = null;
+        for (String term : FuzzyItemMatcher.terms(key.getText())) {
+            if (anchor == null || term.length() > anchor.length()) {
+                anchor = term;
+            }
+        }
+        return anchor;
+    }
+
+    private static Set<String> buckets(SearchKey key, String anchor) {
+        return key.isFuzzy() ? deletions(anchor, FuzzyItemMatcher.maxDistance(anchor)) : Set.of(anchor);
+    }
+
+    /**
+     * The term and every string left after deleting up to {@code depth} of its characters. Two terms within edit
+     * distance d share a string left after at most d deletions from each.
+     */
+    static Set<String> deletions(String term, int depth) {
+        Set<String> result = new HashSet<>();
+        result.add(term);
+        Set<String> level = Set.of(term);
+        for (int i = 0; i < depth; i++) {
+            Set<String> next = new HashSet<>();
+            for (String variant : level) {
+                for (int j = 0; j < variant.length(); j++) {
+                    next.add(variant.substring(0, j) + variant.substring(j + 1));
+                }
+            }
+            result.addAll(next);
+            level = next;
+        }
+        return result;
+    }
+
+    /**
+     * Over-approximates every engine: LIKE and full-text matches contain each query term, fuzzy matches have each
+     * query term within the allowed edit distance of an item term.
+     */
+    private static boolean matches(SearchKey key, ItemSnapshot item) {
+        if (item == null || !Boolean.TRUE.equals(item.getAvailable())) {
+            return false;
+        }
+        Set<String> queryTerms = FuzzyItemMatcher.terms(key.getText());
+        if (key.isFuzzy()) {
+            Set<String> itemTerms = FuzzyItemMatcher.terms(item.getName());
+            itemTerms.addAll(FuzzyItemMatcher.terms(item.getDescription()));
+            return queryTerms.stream().allMatch(term -> itemTerms.stream().anyMatch(itemTerm ->
+                    BkTree.distance(term, itemTerm, FuzzyItemMatcher.maxDistance(term))
+                            <= FuzzyItemMatcher.maxDistance(term)));
+        }
+        String content = (item.getName() + " " + item.getDescription()).toLowerCase(Locale.ROOT);
+        return queryTerms.stream().allMatch(content::contains);
+    }
+
+    /**
+     * A cached page; compared by identity, so a removed page does not unindex the key cached again after it.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class Page {
+        private final List<ItemDto> items;
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class SearchKey {
+        private final String text;
+        private final int offset;
+        private final Integer limit;
+        private final boolean fuzzy;
+    }
+}
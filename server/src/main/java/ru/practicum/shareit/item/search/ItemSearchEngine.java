@@ -0,0 +1,24 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.dto.ItemFacetsDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * Finds available items whose name or description matches the text.
+ * The implementation is selected with the {@code shareit.search.engine} property.
+ */
+public interface ItemSearchEngine {
+
+    List<Item> search(String text, int offset, Integer limit);
+
+    /**
+     * Counts over the items matching the text as {@link #search} matches it, unavailable ones included.
+     */
+    ItemFacetsDto facets(String text, int topOwners);
+
+    static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,221 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.dto.ItemFacetsDto;
+import ru.practicum.shareit.item.dto.OwnerFacetDto;
+import ru.practicum.shareit.item.event.ItemSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Inverted index from lower-cased trigrams of item name and description to sorted int posting lists.
+ * Every indexed version of an item gets a new document id, so posting lists stay append-only and sorted;
+ * replaced and deleted documents are only cleared from the live bitmap and dropped on compaction.
+ * Not thread-safe, callers guard it with a lock.
+ */
+class ItemTrigramIndex {
+
+    static final int GRAM = 3;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> docByItem = new HashMap<>();
+    private final List<Doc> docs = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final BitSet available = new BitSet();
+    private final BitSet withRequest = new BitSet();
+
+    int size() {
+        return docByItem.size();
+    }
+
+    void put(ItemSnapshot item) {
+        remove(item.getId());
+        int doc = docs.size();
+        Doc indexed = new Doc(item);
+        docs.add(indexed);
+        docByItem.put(item.getId(), doc);
+        live.set(doc);
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            available.set(doc);
+        }
+        if (item.getRequestId() != null) {
+            withRequest.set(doc);
+        }
+        for (String gram : grams(indexed)) {
+            postings.computeIfAbsent(gram, key -> new Postings()).add(doc);
+        }
+    }
+
+    void remove(Long itemId) {
+        Integer doc = docByItem.remove(itemId);
+        if (doc != null) {
+            live.clear(doc);
+            available.clear(doc);
+            withRequest.clear(doc);
+            docs.set(doc, null);
+        }
+        if (docs.size() - docByItem.size() > Math.max(1024, docByItem.size())) {
+            compact();
+        }
+    }
+
+    /**
+     * Available items whose name or description contains the text, ordered by item id.
+     */
+    List<ItemSnapshot> search(String text) {
+        BitSet hits = matching(normalize(text), true);
+        return snapshots(hits);
+    }
+
+    /**
+     * Facet counts over the candidates of {@link #search(String)}: availability over every matching item,
+     * requests and the top owners over the hits.
+     */
+    ItemFacetsDto facets(String text, int topOwners) {
+        BitSet matched = matching(normalize(text), false);
+        BitSet hits = (BitSet) matched.clone();
+        hits.and(available);
+        BitSet hitsWithRequest = (BitSet) hits.clone();
+        hitsWithRequest.and(withRequest);
+
+        Map<Long, Long> owners = new HashMap<>();
+        for (int doc = hits.nextSetBit(0); doc >= 0; doc = hits.nextSetBit(doc + 1)) {
+            Long ownerId = docs.get(doc).item.getOwnerId();
+            if (ownerId != null) {
+                owners.merge(ownerId, 1L, Long::sum);
+            }
+        }
+        List<OwnerFacetDto> topOwnerFacets = owners.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(topOwners)
+                .map(entry -> new OwnerFacetDto(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+
+        int hitCount = hits.cardinality();
+        int withRequestCount = hitsWithRequest.cardinality();
+        return new ItemFacetsDto(hitCount, matched.cardinality() - hitCount,
+                withRequestCount, hitCount - withRequestCount, topOwnerFacets);
+    }
+
+    private BitSet matching(String query, boolean availableOnly) {
+        BitSet candidates = (BitSet) live.clone();
+        if (availableOnly) {
+            candidates.and(available);
+        }
+        if (query.length() >= GRAM) {
+            List<Postings> lists = new ArrayList<>();
+            for (String gram : grams(query)) {
+                Postings list = postings.get(gram);
+                if (list == null) {
+                    return new BitSet();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            for (Postings list : lists) {
+                candidates.and(list.toBitSet(candidates));
+                if (candidates.isEmpty()) {
+                    return candidates;
+                }
+            }
+        }
+        for (int doc = candidates.nextSetBit(0); doc >= 0; doc = candidates.nextSetBit(doc + 1)) {
+            Doc indexed = docs.get(doc);
+            if (!indexed.name.contains(query) && !indexed.description.contains(query)) {
+                candidates.clear(doc);
+            }
+        }
+        return candidates;
+    }
+
+    private List<ItemSnapshot> snapshots(BitSet hits) {
+        List<ItemSnapshot> result = new ArrayList<>();
+        for (int doc = hits.nextSetBit(0); doc >= 0; doc = hits.nextSetBit(doc + 1)) {
+            result.add(docs.get(doc).item);
+        }
+        result.sort(Comparator.comparing(ItemSnapshot::getId));
+        return result;
+    }
+
+    void clear() {
+        postings.clear();
+        docByItem.clear();
+        docs.clear();
+        live.clear();
+        available.clear();
+        withRequest.clear();
+    }
+
+    private void compact() {
+        List<ItemSnapshot> items = new ArrayList<>();
+        for (Doc doc : docs) {
+            if (doc != null) {
+                items.add(doc.item);
+            }
+        }
+        clear();
+        items.forEach(this::put);
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Collection<String> grams(Doc doc) {
+        Set<String> grams = grams(doc.name);
+        grams.addAll(grams(doc.description));
+        return grams;
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static class Doc {
+        private final ItemSnapshot item;
+        private final String name;
+        private final String description;
+
+        Doc(ItemSnapshot item) {
+            this.item = item;
+            this.name = normalize(item.getName());
+            this.description = normalize(item.getDescription());
+        }
+    }
+
+    private static class Postings {
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        BitSet toBitSet(BitSet mask) {
+            BitSet bits = new BitSet();
+            for (int i = 0; i < size; i++) {
+                if (mask.get(docs[i])) {
+                    bits.set(docs[i]);
+                }
+            }
+            return bits;
+        }
+    }
+}
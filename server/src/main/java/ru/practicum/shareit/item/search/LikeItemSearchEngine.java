@@ -0,0 +1,39 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dao.ItemSearchCounts;
+import ru.practicum.shareit.item.dto.ItemFacetsDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "like")
+public class LikeItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+
+    public LikeItemSearchEngine(@Autowired ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    @Override
+    public List<Item> search(String text, int offset, Integer limit) {
+        Pageable page = limit != null ? PageRequest.of(offset / limit, limit) : Pageable.unpaged();
+        return itemRepository.getSearchItems(ItemSearchEngine.escapeLike(text), page).getContent();
+    }
+
+    @Override
+    public ItemFacetsDto facets(String text, int topOwners) {
+        String escaped = ItemSearchEngine.escapeLike(text);
+        ItemSearchCounts counts = itemRepository.countSearchItems(escaped);
+        return new ItemFacetsDto(counts.getAvailable(), counts.getMatched() - counts.getAvailable(),
+                counts.getAvailableWithRequest(), counts.getAvailable() - counts.getAvailableWithRequest(),
+                itemRepository.getSearchItemOwners(escaped, PageRequest.of(0, topOwners)));
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemFacetsDto;
+import ru.practicum.shareit.item.event.ItemSnapshot;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Serves search from the shared {@link ItemMemoryIndex}, which is built as soon as the application is ready.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory")
+public class MemoryItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemMemoryIndex index;
+
+    public MemoryItemSearchEngine(@Autowired ItemMemoryIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public List<Item> search(String text, int offset, Integer limit) {
+        return index.search(text).stream()
+                .skip(offset)
+                .limit(limit != null ? limit : Long.MAX_VALUE)
+                .map(ItemSnapshot::toItem)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public ItemFacetsDto facets(String text, int topOwners) {
+        return index.facets(text, topOwners);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        index.rebuild();
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemFacetsDto;
+import ru.practicum.shareit.item.dto.OwnerFacetDto;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over the generated {@code items.search_vector} column (GIN index), ranked with ts_rank.
+ * Substring matches that full-text search misses are served by the pg_trgm indexes on lower(name)
+ * and lower(description). See schema-postgresql.sql.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "postgres", matchIfMissing = true)
+public class PostgresItemSearchEngine implements ItemSearchEngine {
+
+    private static final String MATCHING = "from items i, plainto_tsquery('simple', :text) q " +
+            "where (i.search_vector @@ q " +
+            "or lower(i.name) like lower(:pattern) " +
+            "or lower(i.description) like lower(:pattern)) ";
+    private static final String SEARCH = "select i.id, i.name, i.description, i.is_available, i.owner_id, i.request_id " +
+            MATCHING + "and i.is_available " +
+            "order by ts_rank(i.search_vector, q) desc, i.id";
+    private static final String COUNTS = "select count(*) as matched, count(*) filter (where i.is_available) as available, " +
+            "count(i.request_id) filter (where i.is_available) as with_request " + MATCHING;
+    private static final String OWNERS = "select i.owner_id, count(*) as items " + MATCHING + "and i.is_available " +
+            "group by i.owner_id order by count(*) desc, i.owner_id limit :owners";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Item> search(String text, int offset, Integer limit) {
+        Query query = entityManager.createNativeQuery(SEARCH, Item.class)
+                .setParameter("text", text)
+                .setParameter("pattern", "%" + ItemSearchEngine.escapeLike(text) + "%")
+                .setFirstResult(offset);
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ItemFacetsDto facets(String text, int topOwners) {
+        Object[] counts = (Object[]) matching(COUNTS, text).getSingleResult();
+        long matched = ((Number) counts[0]).longValue();
+        long available = ((Number) counts[1]).longValue();
+        long withRequest = ((Number) counts[2]).longValue();
+        List<Object[]> owners = matching(OWNERS, text)
+                .setParameter("owners", topOwners)
+                .getResultList();
+        return new ItemFacetsDto(available, matched - available, withRequest, available - withRequest,
+                owners.stream()
+                        .map(row -> new OwnerFacetDto(((Number) row[0]).longValue(), ((Number) row[1]).longValue()))
+                        .collect(Collectors.toList()));
+    }
+
+    private Query matching(String sql, String text) {
+        return entityManager.createNativeQuery(sql)
+                .setParameter("text", text)
+                .setParameter("pattern", "%" + ItemSearchEngine.escapeLike(text) + "%");
+    }
+}
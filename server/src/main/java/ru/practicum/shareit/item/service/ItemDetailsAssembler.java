@@ -0,0 +1,85 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.booking.dto.BookingToDto;
+import ru.practicum.shareit.item.dao.CommentRepository;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDtoById;
+import ru.practicum.shareit.item.dto.mapper.CommentMapper;
+import ru.practicum.shareit.item.dto.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Builds {@link ItemDtoById} for a batch of items with two queries: last and next APPROVED bookings
+ * of all owned items in one window-function query, and all comments in one {@code item_id in (...)} query.
+ */
+@Component
+public class ItemDetailsAssembler {
+
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+
+    public ItemDetailsAssembler(@Autowired BookingRepository bookingRepository, CommentRepository commentRepository) {
+        this.bookingRepository = bookingRepository;
+        this.commentRepository = commentRepository;
+    }
+
+    public List<ItemDtoById> assemble(Collection<Item> items, Long userId) {
+        if (items.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ownedIds = items.stream()
+                .filter(item -> item.getOwner().getId().equals(userId))
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        Map<Long, Booking> lastBookings = new HashMap<>();
+        Map<Long, Booking> nextBookings = new HashMap<>();
+        if (!ownedIds.isEmpty()) {
+            for (Booking booking : bookingRepository.findLastAndNextApproved(ownedIds, now)) {
+                Long itemId = booking.getItem().getId();
+                if (booking.getStart().before(now)) {
+                    lastBookings.put(itemId, booking);
+                } else {
+                    nextBookings.put(itemId, booking);
+                }
+            }
+        }
+        Map<Long, List<CommentDto>> comments = new HashMap<>();
+        for (Comment comment : commentRepository.findByItemIdIn(itemIds)) {
+            comments.computeIfAbsent(comment.getItem().getId(), id -> new ArrayList<>())
+                    .add(CommentMapper.toCommentDto(comment));
+        }
+
+        List<ItemDtoById> result = new ArrayList<>();
+        for (Item item : items) {
+            ItemDtoById itemDto = ItemMapper.toItemDtoById(item);
+            Booking last = lastBookings.get(item.getId());
+            if (last != null) {
+                itemDto.setLastBooking(BookingToDto.toBookingDto(last));
+            }
+            Booking next = nextBookings.get(item.getId());
+            if (next != null) {
+                itemDto.setNextBooking(BookingToDto.toBookingDto(next));
+            }
+            itemDto.setComments(comments.getOrDefault(item.getId(), new ArrayList<>()));
+            result.add(itemDto);
+        }
+        return result;
+    }
+}
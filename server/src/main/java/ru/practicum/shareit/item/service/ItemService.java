@@ -4,9 +4,11 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoById;
 import ru.practicum.shareit.item.dto.ItemDtoPatch;
+import ru.practicum.shareit.item.dto.ItemSearchDto;
 import ru.practicum.shareit.item.model.Comment;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface ItemService {
     Collection<ItemDtoById> getItems(Long userId, Long from, Long size);
@@ -21,5 +23,13 @@ public interface ItemService {
 
     Collection<ItemDto> getSearchItems(String text, Long from, Long size);
 
+    Collection<ItemDto> getFuzzySearchItems(String text, Long from, Long size);
+
+    ItemSearchDto getSearchItemsWithFacets(String text, Long from, Long size);
+
+    Collection<ItemDto> getSimilarItems(Long itemId, Integer size);
+
+    List<String> getSuggestions(String prefix, Integer size);
+
     CommentDto addComment(Long userId, Comment comment, Long itemId);
 }
@@ -2,31 +2,39 @@ package ru.practicum.shareit.item.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.shareit.booking.Booking;
-import ru.practicum.shareit.booking.StatusOfBooking;
 import ru.practicum.shareit.booking.dao.BookingRepository;
-import ru.practicum.shareit.booking.dto.BookingToDto;
 import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.NotOwnerException;
+import ru.practicum.shareit.existence.EntityExistence;
 import ru.practicum.shareit.item.dao.CommentRepository;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoById;
 import ru.practicum.shareit.item.dto.ItemDtoPatch;
+import ru.practicum.shareit.item.dto.ItemFacetsDto;
+import ru.practicum.shareit.item.dto.ItemSearchDto;
 import ru.practicum.shareit.item.dto.mapper.CommentMapper;
 import ru.practicum.shareit.item.dto.mapper.ItemMapper;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.event.ItemSnapshot;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.FuzzyItemMatcher;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.similar.ItemSimilarityIndex;
+import ru.practicum.shareit.item.suggest.ItemNameSuggester;
 import ru.practicum.shareit.request.dao.RequestRepository;
+import ru.practicum.shareit.request.match.RequestMatcher;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dao.UserRepository;
 
@@ -37,44 +45,67 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class ItemServiceImpl implements ItemService {
 
+    private static final int FACET_OWNERS = 5;
+    private static final int SIMILAR_ITEMS = 10;
+    private static final int FUZZY_BATCH = 500;
+
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final RequestRepository requestRepository;
+    private final ItemDetailsAssembler itemDetailsAssembler;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemSearchCache itemSearchCache;
+    private final FuzzyItemMatcher fuzzyItemMatcher;
+    private final ItemNameSuggester itemNameSuggester;
+    private final ItemSimilarityIndex itemSimilarityIndex;
+    private final RequestMatcher requestMatcher;
+    private final EntityExistence entityExistence;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ItemServiceImpl(@Autowired ItemRepository itemRepository, UserRepository userRepository,
-                           BookingRepository bookingRepository, CommentRepository commentRepository, RequestRepository requestRepository) {
+                           BookingRepository bookingRepository, CommentRepository commentRepository, RequestRepository requestRepository,
+                           ItemDetailsAssembler itemDetailsAssembler, ItemSearchEngine itemSearchEngine,
+                           ItemSearchCache itemSearchCache,
+                           FuzzyItemMatcher fuzzyItemMatcher, ItemNameSuggester itemNameSuggester,
+                           ItemSimilarityIndex itemSimilarityIndex, RequestMatcher requestMatcher,
+                           EntityExistence entityExistence, ApplicationEventPublisher eventPublisher) {
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.bookingRepository = bookingRepository;
         this.commentRepository = commentRepository;
         this.requestRepository = requestRepository;
+        this.itemDetailsAssembler = itemDetailsAssembler;
+        this.itemSearchEngine = itemSearchEngine;
+        this.itemSearchCache = itemSearchCache;
+        this.fuzzyItemMatcher = fuzzyItemMatcher;
+        this.itemNameSuggester = itemNameSuggester;
+        this.itemSimilarityIndex = itemSimilarityIndex;
+        this.requestMatcher = requestMatcher;
+        this.entityExistence = entityExistence;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     @Transactional(readOnly = true, isolation = Isolation.READ_COMMITTED)
     public Collection<ItemDtoById> getItems(Long userId, Long from, Long size) {
-        Collection<ItemDtoById> items = new ArrayList<>();
+        List<Item> items;
         if (from != null && size != null) {
             Pageable page = PageRequest.of(Math.toIntExact(from / size), Math.toIntExact(size));
-            Page<Item> itemsPage = itemRepository.findAllByOwnerId(userId, page);
-            items = new ArrayList<>(ItemMapper.toItemDtoCollectionItems((itemsPage.get()
-                    .collect(Collectors.toList()))));
+            items = itemRepository.findAllByOwnerId(userId, page).getContent();
         } else {
-            items = ItemMapper.toItemDtoCollectionItems(itemRepository.findAllByOwnerId(userId));
-        }
-        for (ItemDtoById item : items) {
-            item = setLastAndNextBookings(item);
-            item.setComments(CommentMapper.toCommentDtoCollection(commentRepository.findByItemId(item.getId())));
+            items = itemRepository.findAllByOwnerId(userId);
         }
-        return items.stream().sorted(
+        return itemDetailsAssembler.assemble(items, userId).stream().sorted(
                 Comparator.comparing(ItemDtoById::getId)).collect(Collectors.toList());
     }
 
@@ -83,7 +114,7 @@ public class ItemServiceImpl implements ItemService {
     public ItemDto addNewItem(Long userId, ItemDto itemDto) {
         Item item = ItemMapper.toItem(itemDto);
         try {
-            if (!userRepository.existsById(userId)) {
+            if (!entityExistence.exists(EntityExistence.Kind.USER, userId)) {
                 throw new EntityNotFoundException("Not Found User");
             }
             User user = userRepository.getById(userId);
@@ -91,22 +122,29 @@ public class ItemServiceImpl implements ItemService {
 
             if (itemDto.getRequestId() != null) {
                 item.setRequestor(requestRepository.getById(itemDto.getRequestId()));
-                return ItemMapper.toItemDtoRequest(itemRepository.save(item));
             }
         } catch (EntityNotFoundException e) {
             throw new NotFoundException("Такого пользователя не существует");
         }
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        Item saved = itemRepository.save(item);
+        entityExistence.created(EntityExistence.Kind.ITEM, saved.getId());
+        requestMatcher.suggestRequests(saved);
+        eventPublisher.publishEvent(new ItemChangedEvent(null, ItemSnapshot.of(saved)));
+        return itemDto.getRequestId() != null ? ItemMapper.toItemDtoRequest(saved) : ItemMapper.toItemDto(saved);
     }
 
     @Override
     @Transactional(isolation = Isolation.READ_COMMITTED)
     public void deleteItem(Long userId, Long itemId) {
         try {
-            if (!itemRepository.getById(itemId).getOwner().getId().equals(userId)) {
+            Item item = itemRepository.getById(itemId);
+            if (!item.getOwner().getId().equals(userId)) {
                 throw new NotOwnerException("Пользователь не является владельцем вещи");
             }
+            ItemSnapshot previous = ItemSnapshot.of(item);
             itemRepository.deleteById(itemId);
+            entityExistence.deleted(EntityExistence.Kind.ITEM, itemId);
+            eventPublisher.publishEvent(new ItemChangedEvent(previous, null));
         } catch (EntityNotFoundException | EmptyResultDataAccessException e) {
             throw new NotFoundException(String.format("Предмета с id %s не существует", itemId));
         }
@@ -119,6 +157,7 @@ public class ItemServiceImpl implements ItemService {
         if (!itemRepository.getById(itemId).getOwner().getId().equals(userId)) {
             throw new NotOwnerException("Пользователь не является владельцем вещи");
         }
+        ItemSnapshot previous = ItemSnapshot.of(item);
         if (itemDtoPatch.getName() != null) {
             item.setName(itemDtoPatch.getName());
         }
@@ -128,22 +167,17 @@ public class ItemServiceImpl implements ItemService {
         if (itemDtoPatch.getAvailable() != null) {
             item.setAvailable(itemDtoPatch.getAvailable());
         }
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        Item saved = itemRepository.save(item);
+        eventPublisher.publishEvent(new ItemChangedEvent(previous, ItemSnapshot.of(saved)));
+        return ItemMapper.toItemDto(saved);
     }
 
     @Override
     @Transactional(isolation = Isolation.READ_COMMITTED, readOnly = true)
     public ItemDtoById getItemById(Long id, Long userId) {
-        try {
-            ItemDtoById itemDtoById = ItemMapper.toItemDtoById(itemRepository.getById(id));
-            if (itemRepository.getById(id).getOwner().getId().equals(userId)) {
-                itemDtoById = setLastAndNextBookings(itemDtoById);
-            }
-            itemDtoById.setComments(CommentMapper.toCommentDtoCollection(commentRepository.findByItemId(id)));
-            return itemDtoById;
-        } catch (EntityNotFoundException | EmptyResultDataAccessException e) {
-            throw new NotFoundException(String.format("Предмета с id %s не существует", id));
-        }
+        Item item = itemRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException(String.format("Предмета с id %s не существует", id)));
+        return itemDetailsAssembler.assemble(List.of(item), userId).get(0);
     }
 
     @Override
@@ -153,22 +187,93 @@ public class ItemServiceImpl implements ItemService {
             log.warn("Отсутствует категория поиска");
             return new ArrayList<>();
         }
-        if (from != null && size != null) {
-            Pageable page = PageRequest.of(Math.toIntExact(from / size), Math.toIntExact(size));
-            Page<Item> itemsPage = itemRepository.getSearchItems(text, page);
-            return new ArrayList<>(ItemMapper.toItemDtoCollection((itemsPage.get()
-                    .collect(Collectors.toList()))));
+        boolean paged = from != null && size != null;
+        int offset = paged ? Math.toIntExact(from / size * size) : 0;
+        Integer limit = paged ? Math.toIntExact(size) : null;
+        return itemSearchCache.get(text, offset, limit, false, normalized ->
+                ItemMapper.toItemDtoCollection(itemSearchEngine.search(normalized, offset, limit)));
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED, readOnly = true)
+    public Collection<ItemDto> getFuzzySearchItems(String text, Long from, Long size) {
+        if (text.isBlank()) {
+            log.warn("Отсутствует категория поиска");
+            return new ArrayList<>();
+        }
+        boolean paged = from != null && size != null;
+        int offset = paged ? Math.toIntExact(from / size * size) : 0;
+        Integer limit = paged ? Math.toIntExact(size) : null;
+        return itemSearchCache.get(text, offset, limit, true, normalized ->
+                ItemMapper.toItemDtoCollection(availableItems(fuzzyItemMatcher.match(normalized), offset, limit)));
+    }
+
+    /**
+     * The page of the items with these ascending ids that are still available. The matcher may be behind the
+     * database, so the filter comes before the page; items are loaded a batch at a time until the page is full.
+     */
+    private List<Item> availableItems(List<Long> ids, int offset, Integer limit) {
+        List<Item> page = new ArrayList<>();
+        int skip = offset;
+        for (int start = 0; start < ids.size() && (limit == null || page.size() < limit); start += FUZZY_BATCH) {
+            List<Long> batch = ids.subList(start, Math.min(ids.size(), start + FUZZY_BATCH));
+            List<Item> available = itemRepository.findAllById(batch).stream()
+                    .filter(Item::getAvailable)
+                    .sorted(Comparator.comparing(Item::getId))
+                    .collect(Collectors.toList());
+            for (Item item : available) {
+                if (skip > 0) {
+                    skip--;
+                } else if (limit == null || page.size() < limit) {
+                    page.add(item);
+                }
+            }
+        }
+        return page;
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED, readOnly = true)
+    public ItemSearchDto getSearchItemsWithFacets(String text, Long from, Long size) {
+        if (text.isBlank()) {
+            log.warn("Отсутствует категория поиска");
+            return new ItemSearchDto(new ArrayList<>(), new ItemFacetsDto(0, 0, 0, 0, new ArrayList<>()));
+        }
+        return new ItemSearchDto(getSearchItems(text, from, size),
+                itemSearchEngine.facets(ItemSearchCache.normalize(text), FACET_OWNERS));
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED, readOnly = true)
+    public Collection<ItemDto> getSimilarItems(Long itemId, Integer size) {
+        if (!entityExistence.exists(EntityExistence.Kind.ITEM, itemId)) {
+            throw new NotFoundException(String.format("Предмета с id %s не существует", itemId));
         }
-        return ItemMapper.toItemDtoCollection(itemRepository.getSearchItems(text));
+        List<Long> ids = itemSimilarityIndex.similar(itemId, size != null ? size : SIMILAR_ITEMS);
+        Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                .filter(Item::getAvailable)
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ids.stream()
+                .filter(items::containsKey)
+                .map(id -> ItemMapper.toItemDto(items.get(id)))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<String> getSuggestions(String prefix, Integer size) {
+        if (prefix == null || prefix.isBlank()) {
+            return new ArrayList<>();
+        }
+        return itemNameSuggester.suggest(prefix, size != null ? size : ItemNameSuggester.MAX_SUGGESTIONS);
     }
 
     @Override
     @Transactional(isolation = Isolation.READ_COMMITTED)
     public CommentDto addComment(Long userId, Comment comment, Long itemId) {
-        if (!userRepository.existsById(userId)) {
+        if (!entityExistence.exists(EntityExistence.Kind.USER, userId)) {
             throw new NotFoundException("User Not found");
         }
-        if (!itemRepository.existsById(itemId)) {
+        if (!entityExistence.exists(EntityExistence.Kind.ITEM, itemId)) {
             throw new NotFoundException("Item Not Found");
         }
         if (bookingRepository.findByItemId(itemId, userId, Timestamp.valueOf(LocalDateTime.now())).size() == 0) {
@@ -179,26 +284,4 @@ public class ItemServiceImpl implements ItemService {
         comment.setUser(userRepository.getById(userId));
         return CommentMapper.toCommentDto(commentRepository.save(comment));
     }
-
-    public ItemDtoById setLastAndNextBookings(ItemDtoById item) {
-        List<Booking> bookingsPast = bookingRepository
-                .findByItemIdAndStatusAndStartIsBeforeOrderByEndDesc(item.getId(),
-                        StatusOfBooking.APPROVED,
-                        Timestamp.valueOf(LocalDateTime.now()));
-        List<Booking> bookingsNext = new ArrayList<>();
-        if (bookingsPast.size() != 0) {
-            item.setLastBooking(BookingToDto.toBookingDto(bookingsPast.get(0)));
-            bookingsNext = bookingRepository.findByItemIdAndStatusAndStartIsAfterOrderByEndAsc(item.getId(),
-                    StatusOfBooking.APPROVED,
-                    bookingsPast.get(0).getEnd());
-        } else {
-            bookingsNext = bookingRepository.findByItemIdAndStatusAndStartIsAfterOrderByEndAsc(item.getId(),
-                    StatusOfBooking.APPROVED,
-                    Timestamp.valueOf(LocalDateTime.now()));
-        }
-        if (bookingsNext.size() != 0) {
-            item.setNextBooking(BookingToDto.toBookingDto(bookingsNext.get(0)));
-        }
-        return item;
-    }
 }
@@ -0,0 +1,101 @@
+package ru.practicum.shareit.item.similar;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.event.ItemSnapshot;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Near-duplicate lookup over item descriptions backed by {@link MinHashLsh}. Built from the database on first use
+ * and then updated incrementally from committed item changes.
+ */
+@Slf4j
+@Component
+public class ItemSimilarityIndex {
+
+    static final double THRESHOLD = 0.3;
+
+    private final ItemRepository itemRepository;
+    private final MinHashLsh lsh = new MinHashLsh();
+    private final Set<Long> available = new HashSet<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    public ItemSimilarityIndex(@Autowired ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    /**
+     * Ids of available items with a similar description, most similar first.
+     */
+    public List<Long> similar(Long itemId, int limit) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return lsh.similar(itemId, THRESHOLD, limit, available::contains);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            lsh.clear();
+            available.clear();
+            for (Item item : itemRepository.findAll()) {
+                put(ItemSnapshot.of(item));
+            }
+            loaded = true;
+            log.info("Item similarity index built, {} items", lsh.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            if (event.getCurrent() != null) {
+                put(event.getCurrent());
+            } else {
+                lsh.remove(event.getItemId());
+                available.remove(event.getItemId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(ItemSnapshot item) {
+        lsh.put(item.getId(), item.getDescription());
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            available.add(item.getId());
+        } else {
+            available.remove(item.getId());
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            rebuild();
+        }
+    }
+}
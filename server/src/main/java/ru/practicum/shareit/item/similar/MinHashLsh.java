@@ -0,0 +1,154 @@
+package ru.practicum.shareit.item.similar;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * MinHash signatures of character shingles bucketed by LSH bands. Two texts with Jaccard similarity s share
+ * at least one bucket with probability 1 - (1 - s^ROWS)^BANDS, which with 32 bands of 2 rows is about 0.73 at
+ * s = 0.2, 0.95 at the similar-items threshold of 0.3 and above 0.99 from s = 0.4, so a lookup only compares the item
+ * with its bucket mates.
+ * Not thread-safe, callers guard it with a lock.
+ */
+class MinHashLsh {
+
+    static final int SHINGLE = 3;
+    static final int BANDS = 32;
+    static final int ROWS = 2;
+
+    private static final long[] SEEDS = new Random(0x5eed).longs(BANDS * ROWS).toArray();
+
+    private final Map<Long, long[]> signatures = new HashMap<>();
+    private final Map<Long, Set<Long>> buckets = new HashMap<>();
+
+    int size() {
+        return signatures.size();
+    }
+
+    void put(Long id, String text) {
+        remove(id);
+        Set<Integer> shingles = shingles(text);
+        if (shingles.isEmpty()) {
+            return;
+        }
+        long[] signature = signature(shingles);
+        signatures.put(id, signature);
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfAbsent(bucket(signature, band), key -> new HashSet<>()).add(id);
+        }
+    }
+
+    void remove(Long id) {
+        long[] signature = signatures.remove(id);
+        if (signature == null) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            long key = bucket(signature, band);
+            Set<Long> ids = buckets.get(key);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Accepted bucket mates of the item with estimated similarity of at least {@code threshold}, most similar first.
+     */
+    List<Long> similar(Long id, double threshold, int limit, Predicate<Long> accepted) {
+        long[] signature = signatures.get(id);
+        List<Long> result = new ArrayList<>();
+        if (signature == null) {
+            return result;
+        }
+        Map<Long, Double> candidates = new HashMap<>();
+        for (int band = 0; band < BANDS; band++) {
+            for (Long candidate : buckets.get(bucket(signature, band))) {
+                if (!candidate.equals(id) && !candidates.containsKey(candidate) && accepted.test(candidate)) {
+                    candidates.put(candidate, similarity(signature, signatures.get(candidate)));
+                }
+            }
+        }
+        candidates.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())))
+                .limit(limit)
+                .forEach(entry -> result.add(entry.getKey()));
+        return result;
+    }
+
+    void clear() {
+        signatures.clear();
+        buckets.clear();
+    }
+
+    static Set<Integer> shingles(String text) {
+        Set<Integer> shingles = new HashSet<>();
+        if (text == null) {
+            return shingles;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+        if (normalized.length() < SHINGLE) {
+            if (!normalized.isEmpty()) {
+                shingles.add(normalized.hashCode());
+            }
+            return shingles;
+        }
+        for (int i = 0; i + SHINGLE <= normalized.length(); i++) {
+            shingles.add(normalized.substring(i, i + SHINGLE).hashCode());
+        }
+        return shingles;
+    }
+
+    static double similarity(long[] a, long[] b) {
+        int same = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                same++;
+            }
+        }
+        return (double) same / a.length;
+    }
+
+    private static long[] signature(Set<Integer> shingles) {
+        long[] signature = new long[SEEDS.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (int shingle : shingles) {
+            for (int i = 0; i < signature.length; i++) {
+                long hash = mix(shingle ^ SEEDS[i]);
+                if (hash < signature[i]) {
+                    signature[i] = hash;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * SplitMix64 finalizer, a seeded instance per signature row.
+     */
+    private static long mix(long x) {
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+
+    private static long bucket(long[] signature, int band) {
+        long hash = band;
+        for (int row = 0; row < ROWS; row++) {
+            hash = hash * 31 + signature[band * ROWS + row];
+        }
+        return hash;
+    }
+}
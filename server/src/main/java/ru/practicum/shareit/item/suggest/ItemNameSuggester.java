@@ -0,0 +1,126 @@
+package ru.practicum.shareit.item.suggest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.event.ItemSnapshot;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typeahead over names of available items. A name is indexed under its lower-cased full form and under every
+ * suffix starting at a word boundary, so "электрическая дрель" is found by both "элек" and "дре".
+ * Built from the database when the application is ready (or on the first lookup) and then follows committed
+ * item changes.
+ */
+@Slf4j
+@Component
+public class ItemNameSuggester {
+
+    public static final int MAX_SUGGESTIONS = NameTrie.TOP;
+
+    private final ItemRepository itemRepository;
+    private final NameTrie trie = new NameTrie();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    public ItemNameSuggester(@Autowired ItemRepository itemRepository) {
+        this.itemRepository = itemRepository;
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return trie.top(normalize(prefix), Math.min(limit, MAX_SUGGESTIONS));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            trie.clear();
+            int count = 0;
+            for (Item item : itemRepository.findAll()) {
+                if (Boolean.TRUE.equals(item.getAvailable())) {
+                    add(item.getName());
+                    count++;
+                }
+            }
+            loaded = true;
+            log.info("Item name suggestions built, {} items", count);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            if (isSuggested(event.getPrevious())) {
+                remove(event.getPrevious().getName());
+            }
+            if (isSuggested(event.getCurrent())) {
+                add(event.getCurrent().getName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static Set<String> keys(String name) {
+        String normalized = normalize(name);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            if (Character.isLetterOrDigit(normalized.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(normalized.charAt(i - 1)))) {
+                keys.add(normalized.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    private void add(String name) {
+        for (String key : keys(name)) {
+            trie.add(key, name.trim());
+        }
+    }
+
+    private void remove(String name) {
+        for (String key : keys(name)) {
+            trie.remove(key, name.trim());
+        }
+    }
+
+    private static boolean isSuggested(ItemSnapshot item) {
+        return item != null && item.getName() != null && Boolean.TRUE.equals(item.getAvailable());
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            rebuild();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package ru.practicum.shareit.item.suggest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Radix trie of normalized keys. Each key carries the display names it was added for, with a count,
+ * and every node keeps the best {@link #TOP} display names of its subtree (by count, then name),
+ * so a prefix lookup is a walk down the prefix plus a copy of one precomputed list.
+ * Not thread-safe, callers guard it with a lock.
+ */
+class NameTrie {
+
+    static final int TOP = 10;
+
+    private static final Comparator<Suggestion> ORDER = Comparator.comparingInt((Suggestion s) -> -s.count)
+            .thenComparing(s -> s.name);
+
+    private final Node root = new Node("");
+
+    void add(String key, String name) {
+        update(root, key, name, 1);
+    }
+
+    void remove(String key, String name) {
+        update(root, key, name, -1);
+    }
+
+    List<String> top(String prefix, int limit) {
+        Node node = root;
+        String rest = prefix;
+        while (!rest.isEmpty()) {
+            Node child = node.children.get(rest.charAt(0));
+            if (child == null) {
+                return new ArrayList<>();
+            }
+            int common = commonPrefix(child.edge, rest);
+            if (common < child.edge.length() && common < rest.length()) {
+                return new ArrayList<>();
+            }
+            rest = rest.substring(common);
+            node = child;
+        }
+        List<String> result = new ArrayList<>();
+        for (Suggestion suggestion : node.top) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(suggestion.name);
+        }
+        return result;
+    }
+
+    void clear() {
+        root.children.clear();
+        root.names = null;
+        root.top = new ArrayList<>();
+    }
+
+    private void update(Node node, String rest, String name, int delta) {
+        if (rest.isEmpty()) {
+            if (node.names == null) {
+                node.names = new HashMap<>();
+            }
+            node.names.merge(name, delta, Integer::sum);
+            if (node.names.get(name) <= 0) {
+                node.names.remove(name);
+            }
+            if (node.names.isEmpty()) {
+                node.names = null;
+            }
+        } else {
+            char first = rest.charAt(0);
+            Node child = node.children.get(first);
+            if (child == null) {
+                if (delta < 0) {
+                    return;
+                }
+                child = new Node(rest);
+                node.children.put(first, child);
+            } else {
+                int common = commonPrefix(child.edge, rest);
+                if (common < child.edge.length()) {
+                    if (delta < 0) {
+                        return;
+                    }
+                    child = split(node, child, common);
+                }
+            }
+            update(child, rest.substring(child.edge.length()), name, delta);
+            if (child.names == null && child.children.isEmpty()) {
+                node.children.remove(first);
+            }
+        }
+        recomputeTop(node);
+    }
+
+    private static Node split(Node parent, Node child, int at) {
+        Node middle = new Node(child.edge.substring(0, at));
+        child.edge = child.edge.substring(at);
+        middle.children.put(child.edge.charAt(0), child);
+        parent.children.put(middle.edge.charAt(0), middle);
+        middle.top = new ArrayList<>(child.top);
+        return middle;
+    }
+
+    private static void recomputeTop(Node node) {
+        Map<String, Suggestion> merged = new LinkedHashMap<>();
+        if (node.names != null) {
+            node.names.forEach((name, count) -> merged.merge(name, new Suggestion(name, count), NameTrie::max));
+        }
+        for (Node child : node.children.values()) {
+            for (Suggestion suggestion : child.top) {
+                merged.merge(suggestion.name, suggestion, NameTrie::max);
+            }
+        }
+        List<Suggestion> top = new ArrayList<>(merged.values());
+        top.sort(ORDER);
+        node.top = top.size() > TOP ? new ArrayList<>(top.subList(0, TOP)) : top;
+    }
+
+    private static Suggestion max(Suggestion a, Suggestion b) {
+        return a.count >= b.count ? a : b;
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int i = 0;
+        while (i < a.length() && i < b.length() && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static class Node {
+        private String edge;
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private Map<String, Integer> names;
+        private List<Suggestion> top = new ArrayList<>();
+
+        Node(String edge) {
+            this.edge = edge;
+        }
+    }
+
+    private static class Suggestion {
+        private final String name;
+        private final int count;
+
+        Suggestion(String name, int count) {
+            this.name = name;
+            this.count = count;
+        }
+    }
+}
@@ -2,9 +2,11 @@ package ru.practicum.shareit.request;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestSlice;
 import ru.practicum.shareit.request.service.ItemRequestService;
 
 import java.util.List;
@@ -17,6 +19,8 @@ import java.util.List;
 @Validated
 public class ItemRequestController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ItemRequestService itemRequestService;
 
     public ItemRequestController(@Autowired ItemRequestService itemRequestService) {
@@ -38,10 +42,17 @@ public class ItemRequestController {
 
     @GetMapping("/all")
     @ResponseStatus(HttpStatus.OK)
-    public List<ItemRequestDto> getRequests(@RequestHeader(value = "X-Sharer-User-Id") Long userId,
-                                            @RequestParam(value = "from", defaultValue = "0") int from,
-                                            @RequestParam(value = "size", defaultValue = "10") int size) {
-        return itemRequestService.getFromSize(userId, from, size);
+    public ResponseEntity<List<ItemRequestDto>> getRequests(
+            @RequestHeader(value = "X-Sharer-User-Id") Long userId,
+            @RequestParam(value = "from", defaultValue = "0") int from,
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        ItemRequestSlice slice = itemRequestService.getFromSize(userId, from, size, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (slice.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, slice.getNextCursor());
+        }
+        return response.body(slice.getRequests());
     }
 
     @GetMapping("/{requestId}")
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.exceptions.InvalidDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last request of a page in the (created, id) order of the request feed.
+ * Clients get it as an opaque token and send it back to read the next page.
+ */
+@Data
+@AllArgsConstructor
+public class RequestCursor implements Comparable<RequestCursor> {
+
+    private static final String SEPARATOR = "|";
+
+    private LocalDateTime created;
+    private Long id;
+
+    public static RequestCursor of(ItemRequest request) {
+        return new RequestCursor(request.getCreated(), request.getId());
+    }
+
+    public String encode() {
+        String raw = id + SEPARATOR + created;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RequestCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new RequestCursor(LocalDateTime.parse(raw.substring(separator + 1)),
+                    Long.valueOf(raw.substring(0, separator)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidDataException("Invalid cursor: " + cursor);
+        }
+    }
+
+    @Override
+    public int compareTo(RequestCursor other) {
+        int cmp = created.compareTo(other.created);
+        return cmp != 0 ? cmp : id.compareTo(other.id);
+    }
+}
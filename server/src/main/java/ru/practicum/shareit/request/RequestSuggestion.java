@@ -0,0 +1,39 @@
+package ru.practicum.shareit.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+import java.io.Serializable;
+
+/**
+ * Available item found by matching, not chosen by its owner, for an item request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(RequestSuggestion.Key.class)
+@Table(name = "request_suggestions", schema = "public")
+public class RequestSuggestion {
+
+    @Id
+    @Column(name = "request_id", nullable = false)
+    private Long requestId;
+    @Id
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long requestId;
+        private Long itemId;
+    }
+}
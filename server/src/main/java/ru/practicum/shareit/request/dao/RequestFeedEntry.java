@@ -0,0 +1,12 @@
+package ru.practicum.shareit.request.dao;
+
+import java.time.LocalDateTime;
+
+public interface RequestFeedEntry {
+
+    Long getId();
+
+    Long getRequestorId();
+
+    LocalDateTime getCreated();
+}
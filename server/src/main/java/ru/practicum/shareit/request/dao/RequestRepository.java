@@ -3,6 +3,7 @@ package ru.practicum.shareit.request.dao;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.user.User;
 
@@ -14,4 +15,11 @@ public interface RequestRepository extends JpaRepository<ItemRequest, Long> {
     Page<ItemRequest> findAllByRequestorNot(User requestor, Pageable page);
 
     List<ItemRequest> findAllByRequestorIdOrderByCreatedDesc(Long requestorId);
+
+    @Query("select r.id as id, r.requestor.id as requestorId, r.created as created from ItemRequest r " +
+            "order by r.created, r.id")
+    List<RequestFeedEntry> findFeed();
+
+    @Query("select r from ItemRequest r where not exists (select i.id from Item i where i.requestor = r)")
+    List<ItemRequest> findAllOpen();
 }
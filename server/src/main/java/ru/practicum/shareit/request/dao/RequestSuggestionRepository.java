@@ -0,0 +1,12 @@
+package ru.practicum.shareit.request.dao;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.shareit.request.RequestSuggestion;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface RequestSuggestionRepository extends JpaRepository<RequestSuggestion, RequestSuggestion.Key> {
+
+    List<RequestSuggestion> findAllByRequestIdIn(Collection<Long> requestIds);
+}
@@ -24,4 +24,14 @@ public class ItemRequestDto {
     private Long requestor;
     private LocalDateTime created;
     private Collection<ItemDto> items;
+    private Collection<ItemDto> suggestions;
+
+    public ItemRequestDto(Long id, String description, Long requestor, LocalDateTime created,
+                          Collection<ItemDto> items) {
+        this.id = id;
+        this.description = description;
+        this.requestor = requestor;
+        this.created = created;
+        this.items = items;
+    }
 }
@@ -13,6 +13,7 @@ public class ItemRequestMapper {
                 itemRequest.getDescription(),
                 itemRequest.getRequestor().getId(),
                 itemRequest.getCreated(),
+                new ArrayList<>(),
                 new ArrayList<>()
         );
     }
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemRequestSlice {
+
+    private List<ItemRequestDto> requests;
+    private String nextCursor;
+}
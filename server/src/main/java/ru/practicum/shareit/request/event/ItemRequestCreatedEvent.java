@@ -0,0 +1,15 @@
+package ru.practicum.shareit.request.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+
+/**
+ * Published by the request service when a user creates an item request.
+ */
+@Data
+@AllArgsConstructor
+public class ItemRequestCreatedEvent {
+
+    private ItemRequestDto request;
+}
@@ -0,0 +1,213 @@
+package ru.practicum.shareit.request.match;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.event.ItemSnapshot;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.RequestSuggestion;
+import ru.practicum.shareit.request.dao.RequestRepository;
+import ru.practicum.shareit.request.dao.RequestSuggestionRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Matches item requests with available items and stores the pairs as {@link RequestSuggestion}s.
+ * Open requests (no item was added for them yet) are kept in a reverse index, so a new item finds the requests
+ * it satisfies by percolating its own words instead of scanning every request; a new request is looked up
+ * in the index of available items. Both indexes are built on first use and then follow committed changes.
+ */
+@Slf4j
+@Component
+public class RequestMatcher {
+
+    public static final int MAX_SUGGESTIONS = 20;
+
+    private final ItemRepository itemRepository;
+    private final RequestRepository requestRepository;
+    private final RequestSuggestionRepository suggestionRepository;
+    private final StemIndex openRequests = new StemIndex();
+    private final StemIndex availableItems = new StemIndex();
+    private final Map<Long, Long> requestors = new HashMap<>();
+    private final Map<Long, Long> owners = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    public RequestMatcher(@Autowired ItemRepository itemRepository, RequestRepository requestRepository,
+                          RequestSuggestionRepository suggestionRepository) {
+        this.itemRepository = itemRepository;
+        this.requestRepository = requestRepository;
+        this.suggestionRepository = suggestionRepository;
+    }
+
+    /**
+     * Suggests available items of other users for a just saved request; the request joins the open requests
+     * once the transaction commits.
+     */
+    public void suggestItems(ItemRequest request) {
+        if (ensureLoaded()) {
+            forgetUncommitted(request.getId(), null);
+        }
+        Long requestorId = request.getRequestor().getId();
+        List<Long> itemIds;
+        lock.readLock().lock();
+        try {
+            itemIds = availableItems.search(StemIndex.stems(request.getDescription())).stream()
+                    .filter(itemId -> !Objects.equals(owners.get(itemId), requestorId))
+                    .limit(MAX_SUGGESTIONS)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+        suggestionRepository.saveAll(itemIds.stream()
+                .map(itemId -> new RequestSuggestion(request.getId(), itemId))
+                .collect(Collectors.toList()));
+        afterCommit(() -> addOpenRequest(request.getId(), requestorId, request.getDescription()));
+    }
+
+    /**
+     * Suggests a just saved item for the open requests of other users it satisfies.
+     */
+    public void suggestRequests(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        if (ensureLoaded()) {
+            forgetUncommitted(null, item.getId());
+        }
+        Long ownerId = item.getOwner().getId();
+        Long answeredId = item.getRequestor() != null ? item.getRequestor().getId() : null;
+        List<Long> requestIds;
+        lock.readLock().lock();
+        try {
+            requestIds = openRequests.percolate(StemIndex.stems(item.getName() + " " + item.getDescription()))
+                    .stream()
+                    .filter(requestId -> !requestId.equals(answeredId))
+                    .filter(requestId -> !Objects.equals(requestors.get(requestId), ownerId))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+        suggestionRepository.saveAll(requestIds.stream()
+                .map(requestId -> new RequestSuggestion(requestId, item.getId()))
+                .collect(Collectors.toList()));
+    }
+
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            openRequests.clear();
+            availableItems.clear();
+            requestors.clear();
+            owners.clear();
+            for (ItemRequest request : requestRepository.findAllOpen()) {
+                openRequests.put(request.getId(), StemIndex.stems(request.getDescription()));
+                requestors.put(request.getId(), request.getRequestor().getId());
+            }
+            for (Item item : itemRepository.findAll()) {
+                putItem(ItemSnapshot.of(item));
+            }
+            loaded = true;
+            log.info("Request matching built, {} open requests, {} available items",
+                    openRequests.size(), availableItems.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                return;
+            }
+            availableItems.remove(event.getItemId());
+            owners.remove(event.getItemId());
+            ItemSnapshot current = event.getCurrent();
+            if (current != null) {
+                putItem(current);
+                if (current.getRequestId() != null) {
+                    openRequests.remove(current.getRequestId());
+                    requestors.remove(current.getRequestId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * A rebuild inside the saving transaction has indexed the new row, it is indexed again after commit.
+     */
+    private void forgetUncommitted(Long requestId, Long itemId) {
+        lock.writeLock().lock();
+        try {
+            if (requestId != null) {
+                openRequests.remove(requestId);
+                requestors.remove(requestId);
+            }
+            if (itemId != null) {
+                availableItems.remove(itemId);
+                owners.remove(itemId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addOpenRequest(Long requestId, Long requestorId, String description) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                openRequests.put(requestId, StemIndex.stems(description));
+                requestors.put(requestId, requestorId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putItem(ItemSnapshot item) {
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            availableItems.put(item.getId(), StemIndex.stems(item.getName() + " " + item.getDescription()));
+            owners.put(item.getId(), item.getOwnerId());
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private boolean ensureLoaded() {
+        if (loaded) {
+            return false;
+        }
+        rebuild();
+        return true;
+    }
+}
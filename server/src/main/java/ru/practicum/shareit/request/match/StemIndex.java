@@ -0,0 +1,114 @@
+package ru.practicum.shareit.request.match;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from word stems to document ids. Lookups count, per document, how many query stems it shares,
+ * so only documents on the query's posting lists are touched.
+ * Not thread-safe, callers guard it with a lock.
+ */
+class StemIndex {
+
+    static final int MIN_TOKEN = 4;
+
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, Set<String>> stemsByDoc = new HashMap<>();
+
+    int size() {
+        return stemsByDoc.size();
+    }
+
+    void put(Long id, Set<String> stems) {
+        remove(id);
+        if (stems.isEmpty()) {
+            return;
+        }
+        stemsByDoc.put(id, stems);
+        for (String stem : stems) {
+            postings.computeIfAbsent(stem, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    void remove(Long id) {
+        Set<String> stems = stemsByDoc.remove(id);
+        if (stems == null) {
+            return;
+        }
+        for (String stem : stems) {
+            Set<Long> ids = postings.get(stem);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(stem);
+            }
+        }
+    }
+
+    /**
+     * Documents that share at least half of the query stems, best covered first.
+     */
+    List<Long> search(Set<String> query) {
+        Map<Long, Integer> hits = hits(query);
+        List<Long> result = new ArrayList<>();
+        hits.forEach((id, count) -> {
+            if (count * 2 >= query.size()) {
+                result.add(id);
+            }
+        });
+        result.sort(Comparator.comparing((Long id) -> -hits.get(id)).thenComparing(id -> id));
+        return result;
+    }
+
+    /**
+     * Percolation: documents whose own stems are at least half covered by the query, in id order.
+     */
+    List<Long> percolate(Set<String> query) {
+        Map<Long, Integer> hits = hits(query);
+        List<Long> result = new ArrayList<>();
+        hits.forEach((id, count) -> {
+            if (count * 2 >= stemsByDoc.get(id).size()) {
+                result.add(id);
+            }
+        });
+        result.sort(Comparator.naturalOrder());
+        return result;
+    }
+
+    void clear() {
+        postings.clear();
+        stemsByDoc.clear();
+    }
+
+    /**
+     * Lower-cased words of at least {@link #MIN_TOKEN} letters with the last two letters of longer words cut off,
+     * a crude stemmer that is enough to match "щётка" with "щёткой" or "drill" with "drills".
+     */
+    static Set<String> stems(String text) {
+        Set<String> stems = new HashSet<>();
+        if (text == null) {
+            return stems;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() >= MIN_TOKEN) {
+                stems.add(token.substring(0, Math.max(MIN_TOKEN, token.length() - 2)));
+            }
+        }
+        return stems;
+    }
+
+    private Map<Long, Integer> hits(Set<String> query) {
+        Map<Long, Integer> hits = new HashMap<>();
+        for (String stem : query) {
+            for (Long id : postings.getOrDefault(stem, Set.of())) {
+                hits.merge(id, 1, Integer::sum);
+            }
+        }
+        return hits;
+    }
+}
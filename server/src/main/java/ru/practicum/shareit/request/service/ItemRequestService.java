@@ -1,13 +1,14 @@
 package ru.practicum.shareit.request.service;
 
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestSlice;
 
 import java.util.List;
 
 public interface ItemRequestService {
     ItemRequestDto add(ItemRequestDto itemRequest, Long userId);
 
-    List<ItemRequestDto> getFromSize(Long userId, int from, int size);
+    ItemRequestSlice getFromSize(Long userId, int from, int size, String cursor);
 
     ItemRequestDto getRequestById(Long userId, Long requestId);
 
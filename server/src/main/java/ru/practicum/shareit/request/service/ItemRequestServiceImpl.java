@@ -3,25 +3,34 @@ package ru.practicum.shareit.request.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.existence.EntityExistence;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.RequestCursor;
+import ru.practicum.shareit.request.RequestSuggestion;
 import ru.practicum.shareit.request.dao.RequestRepository;
+import ru.practicum.shareit.request.dao.RequestSuggestionRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestMapper;
+import ru.practicum.shareit.request.dto.ItemRequestSlice;
+import ru.practicum.shareit.request.event.ItemRequestCreatedEvent;
+import ru.practicum.shareit.request.match.RequestMatcher;
 import ru.practicum.shareit.user.dao.UserRepository;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,6 +41,11 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     private final RequestRepository requestRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final RequestSuggestionRepository suggestionRepository;
+    private final RequestMatcher requestMatcher;
+    private final RequestFeed requestFeed;
+    private final EntityExistence entityExistence;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(isolation = Isolation.READ_COMMITTED)
@@ -39,26 +53,41 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         checkUserExist(userId);
         ItemRequest itemRequest = new ItemRequest();
         itemRequest.setDescription(itemRequestDto.getDescription());
-        itemRequest.setCreated(LocalDateTime.now());
+        itemRequest.setCreated(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
         itemRequest.setRequestor(userRepository.getById(userId));
-        return ItemRequestMapper.toItemDtoRequest(requestRepository.save(itemRequest));
+        ItemRequest saved = requestRepository.save(itemRequest);
+        requestMatcher.suggestItems(saved);
+        requestFeed.append(saved);
+        ItemRequestDto savedDto = ItemRequestMapper.toItemDtoRequest(saved);
+        setSuggestions(List.of(savedDto));
+        eventPublisher.publishEvent(new ItemRequestCreatedEvent(savedDto));
+        return savedDto;
 
     }
 
     @Override
     @Transactional(isolation = Isolation.READ_COMMITTED, readOnly = true)
-    public List<ItemRequestDto> getFromSize(Long userId, int from, int size) {
+    public ItemRequestSlice getFromSize(Long userId, int from, int size, String cursor) {
         checkUserExist(userId);
-        Sort sortById = Sort.by(Sort.Direction.ASC, "created");
-        Pageable page = PageRequest.of(from / size, size, sortById);
-
-        Page<ItemRequest> requestsPage = requestRepository.findAllByRequestorNot(userRepository.getById(userId), page);
-        ArrayList<ItemRequestDto> itemRequestDtos = new ArrayList<>(ItemRequestMapper.toDtoCollection(requestsPage.get()
-                .collect(Collectors.toList())).stream().collect(Collectors.toList()));
-        for (ItemRequestDto itemRequestDto : itemRequestDtos) {
-            itemRequestDto.setItems(ItemMapper.toItemDtoCollectionRequests(itemRepository.findAllNotId(userId)));
+        RequestCursor after = cursor == null ? null : RequestCursor.decode(cursor);
+        List<RequestCursor> positions = requestFeed.page(userId, after, from / size * size, size + 1);
+        boolean hasMore = positions.size() > size;
+        if (hasMore) {
+            positions = positions.subList(0, size);
         }
-        return itemRequestDtos;
+        Map<Long, ItemRequest> requests = requestRepository.findAllById(positions.stream()
+                        .map(RequestCursor::getId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        List<ItemRequestDto> itemRequestDtos = positions.stream()
+                .map(position -> requests.get(position.getId()))
+                .filter(Objects::nonNull)
+                .map(ItemRequestMapper::toItemDtoRequest)
+                .collect(Collectors.toList());
+        setItems(itemRequestDtos);
+        setSuggestions(itemRequestDtos);
+        String nextCursor = hasMore ? positions.get(positions.size() - 1).encode() : null;
+        return new ItemRequestSlice(itemRequestDtos, nextCursor);
     }
 
     @Override
@@ -70,6 +99,7 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         }
         ItemRequestDto itemRequestDto = ItemRequestMapper.toItemDtoRequest(requestRepository.getById(requestId));
         itemRequestDto.setItems(ItemMapper.toItemDtoCollectionRequests(itemRepository.findAllByRequestId(requestId)));
+        setSuggestions(List.of(itemRequestDto));
         return itemRequestDto;
     }
 
@@ -79,14 +109,48 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         checkUserExist(userId);
         ArrayList<ItemRequestDto> itemRequestDtos = new ArrayList<>(ItemRequestMapper.toDtoCollection(requestRepository
                 .findAllByRequestorIdOrderByCreatedDesc(userId)));
+        setItems(itemRequestDtos);
+        setSuggestions(itemRequestDtos);
+        return itemRequestDtos;
+    }
+
+    private void setItems(List<ItemRequestDto> itemRequestDtos) {
+        if (itemRequestDtos.isEmpty()) {
+            return;
+        }
+        List<Long> requestIds = itemRequestDtos.stream().map(ItemRequestDto::getId).collect(Collectors.toList());
+        Map<Long, List<Item>> itemsByRequest = itemRepository.findAllByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequestor().getId()));
         for (ItemRequestDto itemRequestDto : itemRequestDtos) {
-            itemRequestDto.setItems(ItemMapper.toItemDtoCollectionRequests(itemRepository.findAllByRequestorId(userId)));
+            itemRequestDto.setItems(ItemMapper.toItemDtoCollectionRequests(
+                    itemsByRequest.getOrDefault(itemRequestDto.getId(), List.of())));
+        }
+    }
+
+    private void setSuggestions(List<ItemRequestDto> itemRequestDtos) {
+        if (itemRequestDtos.isEmpty()) {
+            return;
+        }
+        List<Long> requestIds = itemRequestDtos.stream().map(ItemRequestDto::getId).collect(Collectors.toList());
+        Map<Long, List<Long>> itemIdsByRequest = suggestionRepository.findAllByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(RequestSuggestion::getRequestId,
+                        Collectors.mapping(RequestSuggestion::getItemId, Collectors.toList())));
+        Map<Long, Item> items = itemRepository.findAllById(itemIdsByRequest.values().stream()
+                        .flatMap(List::stream)
+                        .collect(Collectors.toSet())).stream()
+                .filter(Item::getAvailable)
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        for (ItemRequestDto itemRequestDto : itemRequestDtos) {
+            itemRequestDto.setSuggestions(itemIdsByRequest.getOrDefault(itemRequestDto.getId(), List.of()).stream()
+                    .filter(items::containsKey)
+                    .sorted()
+                    .map(itemId -> ItemMapper.toItemDto(items.get(itemId)))
+                    .collect(Collectors.toList()));
         }
-        return itemRequestDtos;
     }
 
     public void checkUserExist(Long userId) {
-        if (!userRepository.existsById(userId)) {
+        if (!entityExistence.exists(EntityExistence.Kind.USER, userId)) {
             throw new NotFoundException("User not found in base");
         }
     }
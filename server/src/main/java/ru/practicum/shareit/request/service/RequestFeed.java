@@ -0,0 +1,213 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.RequestCursor;
+import ru.practicum.shareit.request.dao.RequestFeedEntry;
+import ru.practicum.shareit.request.dao.RequestRepository;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory feed of all item request positions in (created, id) order, appended to when a request is committed.
+ * A page is a binary search for the cursor followed by a walk over the next entries that skips the reader's own
+ * requests, so it costs the search plus the entries walked, the reader's skipped requests included, and never
+ * touches the database. The feed is loaded when the application is ready and reloaded every
+ * {@link #RELOAD_INTERVAL} on a scheduler to pick up requests written by other instances.
+ */
+@Slf4j
+@Component
+public class RequestFeed {
+
+    private static final Duration RELOAD_INTERVAL = Duration.ofMinutes(10);
+    // only requests that arrive before the application is ready wait for the first load
+    private static final Duration FIRST_LOAD_WAIT = Duration.ofSeconds(30);
+
+    private final RequestRepository requestRepository;
+    private final List<Entry> entries = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock reloadLock = new ReentrantLock();
+    private final CountDownLatch firstLoad = new CountDownLatch(1);
+    private final ScheduledExecutorService reloads = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "request-feed-reload");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // requests committed while a reload reads the database, null when no reload runs
+    private List<Entry> insertedDuringReload;
+
+    public RequestFeed(@Autowired RequestRepository requestRepository) {
+        this.requestRepository = requestRepository;
+    }
+
+    /**
+     * Positions of up to {@code limit} requests of other users after {@code after},
+     * or after skipping {@code offset} of them when there is no cursor.
+     */
+    public List<RequestCursor> page(Long userId, RequestCursor after, int offset, int limit) {
+        awaitFirstLoad();
+        List<RequestCursor> page = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int index = 0;
+            if (after != null) {
+                int found = Collections.binarySearch(entries, new Entry(after, null),
+                        (a, b) -> a.position.compareTo(b.position));
+                index = found >= 0 ? found + 1 : -found - 1;
+            }
+            int skip = after != null ? 0 : offset;
+            for (; index < entries.size() && page.size() < limit; index++) {
+                Entry entry = entries.get(index);
+                if (Objects.equals(entry.requestorId, userId)) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    page.add(entry.position);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return page;
+    }
+
+    /**
+     * Adds a just saved request once its transaction commits.
+     */
+    public void append(ItemRequest request) {
+        Entry entry = new Entry(RequestCursor.of(request), request.getRequestor().getId());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(entry);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                insert(entry);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reload();
+        reloads.scheduleWithFixedDelay(() -> {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                log.warn("Request feed not reloaded", e);
+            }
+        }, RELOAD_INTERVAL.toMillis(), RELOAD_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void reload() {
+        reloadLock.lock();
+        try {
+            load();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reloads.shutdownNow();
+    }
+
+    /**
+     * Replaces the entries with the database's. Requests committed after the read started may be missing from it,
+     * so the ones inserted meanwhile are put back after the swap.
+     */
+    private void load() {
+        lock.writeLock().lock();
+        try {
+            insertedDuringReload = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            List<Entry> loaded = new ArrayList<>();
+            for (RequestFeedEntry row : requestRepository.findFeed()) {
+                loaded.add(new Entry(new RequestCursor(row.getCreated(), row.getId()), row.getRequestorId()));
+            }
+            lock.writeLock().lock();
+            try {
+                entries.clear();
+                entries.addAll(loaded);
+                insertedDuringReload.forEach(this::insertLocked);
+                firstLoad.countDown();
+                log.info("Request feed loaded, {} requests", entries.size());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                insertedDuringReload = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void insert(Entry entry) {
+        lock.writeLock().lock();
+        try {
+            insertLocked(entry);
+            if (insertedDuringReload != null) {
+                insertedDuringReload.add(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insertLocked(Entry entry) {
+        int index = entries.size();
+        while (index > 0 && entries.get(index - 1).position.compareTo(entry.position) > 0) {
+            index--;
+        }
+        if (index == 0 || !entries.get(index - 1).position.equals(entry.position)) {
+            entries.add(index, entry);
+        }
+    }
+
+    private void awaitFirstLoad() {
+        try {
+            if (!firstLoad.await(FIRST_LOAD_WAIT.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Request feed is not loaded");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the request feed", e);
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final RequestCursor position;
+        private final Long requestorId;
+    }
+}
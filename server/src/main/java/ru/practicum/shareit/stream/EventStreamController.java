@@ -0,0 +1,28 @@
+package ru.practicum.shareit.stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+public class EventStreamController {
+
+    private final EventStreams eventStreams;
+
+    public EventStreamController(@Autowired EventStreams eventStreams) {
+        this.eventStreams = eventStreams;
+    }
+
+    @GetMapping(value = "/bookings/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBookings(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return eventStreams.subscribe(EventStreams.Topic.BOOKINGS, userId);
+    }
+
+    @GetMapping(value = "/requests/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return eventStreams.subscribe(EventStreams.Topic.REQUESTS, userId);
+    }
+}
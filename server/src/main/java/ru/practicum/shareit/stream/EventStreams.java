@@ -0,0 +1,138 @@
+package ru.practicum.shareit.stream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingDtoCreate;
+import ru.practicum.shareit.booking.event.BookingStatusChangedEvent;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.existence.EntityExistence;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.event.ItemRequestCreatedEvent;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Server-sent event streams of committed booking status changes (to the booker) and new item requests
+ * (to everyone but the requestor). A heartbeat comment keeps idle connections open through proxies and
+ * detects clients that went away. Subscribers drain on a fixed pool of sender threads
+ * ({@code shareit.streams.sender-threads}), so an event for every subscriber does not start a thread per client.
+ * A subscriber has at most one drain task at a time, which keeps the pool's queue no longer than the number of
+ * subscribers. A client that stops reading holds a sender until the send fails on the socket write timeout
+ * ({@code server.tomcat.connection-timeout}); the others wait in the queue meanwhile, their events coalesced in
+ * their own buffers.
+ */
+@Slf4j
+@Component
+public class EventStreams {
+
+    public enum Topic {
+        BOOKINGS, REQUESTS
+    }
+
+    static final int BUFFER_SIZE = 32;
+    private static final Duration TIMEOUT = Duration.ofMinutes(30);
+    private static final Duration HEARTBEAT = Duration.ofSeconds(15);
+    private static final Duration RECONNECT = Duration.ofSeconds(5);
+    private static final String HEARTBEAT_KEY = "heartbeat";
+
+    private final EntityExistence entityExistence;
+    private final Map<Topic, Set<Subscriber>> subscribers = new EnumMap<>(Topic.class);
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+            daemonThreads("event-stream-heartbeat"));
+    private final ThreadPoolExecutor senders;
+
+    public EventStreams(@Autowired EntityExistence entityExistence,
+                        @Value("${shareit.streams.sender-threads:16}") int senderThreads) {
+        this.entityExistence = entityExistence;
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(), daemonThreads("event-stream-sender"));
+        senders.allowCoreThreadTimeOut(true);
+        for (Topic topic : Topic.values()) {
+            subscribers.put(topic, ConcurrentHashMap.newKeySet());
+        }
+        heartbeats.scheduleAtFixedRate(this::heartbeat, HEARTBEAT.toMillis(), HEARTBEAT.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(Topic topic, Long userId) {
+        if (!entityExistence.exists(EntityExistence.Kind.USER, userId)) {
+            throw new NotFoundException("User not found in base");
+        }
+        SseEmitter emitter = new SseEmitter(TIMEOUT.toMillis());
+        Subscriber subscriber = new Subscriber(userId, emitter, BUFFER_SIZE, senders);
+        Set<Subscriber> topicSubscribers = subscribers.get(topic);
+        topicSubscribers.add(subscriber);
+        Runnable unsubscribe = () -> {
+            subscriber.close();
+            topicSubscribers.remove(subscriber);
+        };
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+        // headers only go out with the first write, so greet right away instead of at the first heartbeat
+        subscriber.offer(HEARTBEAT_KEY, SseEmitter.event().reconnectTime(RECONNECT.toMillis()).comment("connected"));
+        log.info("User {} subscribed to {} events", userId, topic);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingStatusChanged(BookingStatusChangedEvent event) {
+        BookingDtoCreate booking = event.getBooking();
+        Long bookerId = booking.getBooker().getId();
+        publish(Topic.BOOKINGS, bookerId::equals, "booking-" + booking.getId(), "booking", booking);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemRequestCreated(ItemRequestCreatedEvent event) {
+        ItemRequestDto request = event.getRequest();
+        publish(Topic.REQUESTS, userId -> !userId.equals(request.getRequestor()), "request-" + request.getId(),
+                "request", request);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        subscribers.values().forEach(Set::clear);
+    }
+
+    private void publish(Topic topic, Predicate<Long> recipients, String key, String name, Object data) {
+        for (Subscriber subscriber : subscribers.get(topic)) {
+            if (recipients.test(subscriber.getUserId())) {
+                subscriber.offer(key, SseEmitter.event().name(name).data(data));
+            }
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private void heartbeat() {
+        for (Set<Subscriber> topicSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : topicSubscribers) {
+                subscriber.offer(HEARTBEAT_KEY, SseEmitter.event().comment(HEARTBEAT_KEY));
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.stream;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Open-in-view for every endpoint except the streams. A stream request stays open for minutes, and an entity
+ * manager bound to it would keep the database connection of its first query for just as long, so a handful of
+ * subscribers could take the whole pool. Replaces the interceptor Spring Boot registers for all paths; web slices
+ * without JPA get none.
+ */
+@Configuration
+public class StreamOpenInViewConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    public StreamOpenInViewConfig(@Autowired ObjectProvider<EntityManagerFactory> entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        entityManagerFactory.ifAvailable(factory -> {
+            OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+            interceptor.setEntityManagerFactory(factory);
+            registry.addWebRequestInterceptor(interceptor).excludePathPatterns("/*/stream");
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.stream;
+
+import lombok.Getter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * One open event stream. Events wait in a bounded buffer keyed by what they describe: a newer event for the same
+ * key replaces the pending one, and when the buffer is full the oldest pending event is dropped. A send blocks while
+ * the client's socket buffer is full, so the buffer is drained by one task at a time on a shared sender pool.
+ * A send that cannot complete within the socket write timeout fails and closes the stream.
+ */
+class Subscriber {
+
+    @Getter
+    private final Long userId;
+    private final SseEmitter emitter;
+    private final int capacity;
+    private final Executor executor;
+    private final LinkedHashMap<String, SseEmitter.SseEventBuilder> pending = new LinkedHashMap<>();
+    private boolean draining;
+    private boolean closed;
+    @Getter
+    private long dropped;
+
+    Subscriber(Long userId, SseEmitter emitter, int capacity, Executor executor) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.capacity = capacity;
+        this.executor = executor;
+    }
+
+    synchronized void offer(String key, SseEmitter.SseEventBuilder event) {
+        if (closed) {
+            return;
+        }
+        if (pending.remove(key) == null && pending.size() >= capacity) {
+            Iterator<String> eldest = pending.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+            dropped++;
+        }
+        pending.put(key, event);
+        if (!draining) {
+            draining = true;
+            executor.execute(this::drain);
+        }
+    }
+
+    synchronized void close() {
+        closed = true;
+        pending.clear();
+    }
+
+    private void drain() {
+        while (true) {
+            SseEmitter.SseEventBuilder event;
+            synchronized (this) {
+                Iterator<SseEmitter.SseEventBuilder> next = pending.values().iterator();
+                if (closed || !next.hasNext()) {
+                    draining = false;
+                    return;
+                }
+                event = next.next();
+                next.remove();
+            }
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                close();
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
+import org.hibernate.annotations.Generated;
+import org.hibernate.annotations.GenerationTime;
 
 import javax.persistence.*;
 import javax.validation.constraints.Email;
@@ -28,5 +31,14 @@ public class User {
     @Email
     @Column(name = "email", nullable = false)
     private String email;
+    @JsonIgnore
+    @Column(name = "email_normalized", insertable = false, updatable = false)
+    @Generated(GenerationTime.ALWAYS)
+    private String emailNormalized;
 
+    public User(Long id, String name, String email) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+    }
 }
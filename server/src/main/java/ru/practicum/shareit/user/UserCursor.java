@@ -0,0 +1,33 @@
+package ru.practicum.shareit.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.exceptions.InvalidDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Id of the last user of a page; users are paged in id order.
+ * Clients get it as an opaque token and send it back to read the next page.
+ */
+@Data
+@AllArgsConstructor
+public class UserCursor {
+
+    private Long id;
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(String.valueOf(id)
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static UserCursor decode(String cursor) {
+        try {
+            return new UserCursor(Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor),
+                    StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidDataException("Invalid cursor: " + cursor);
+        }
+    }
+}
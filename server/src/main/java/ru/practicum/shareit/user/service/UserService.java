@@ -1,10 +1,11 @@
 package ru.practicum.shareit.user.service;
 
-import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoPatch;
+import ru.practicum.shareit.user.dto.UserSlice;
 
 import java.util.Collection;
+import java.util.function.Consumer;
 
 public interface UserService {
     UserDto createUser(UserDto user);
@@ -13,7 +14,11 @@ public interface UserService {
 
     UserDto getUserById(Long id);
 
-    Collection<User> getUsers();
+    Collection<UserDto> getUsers();
+
+    UserSlice getUsers(Integer size, String cursor);
+
+    void streamUsers(Consumer<UserDto> consumer);
 
     void deleteUser(Long id);
 }
@@ -3,21 +3,33 @@ package ru.practicum.shareit.user.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.AlreadyExistEmailException;
+import ru.practicum.shareit.exceptions.InvalidDataException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.existence.EntityExistence;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserCursor;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoPatch;
+import ru.practicum.shareit.user.dto.UserSlice;
 import ru.practicum.shareit.user.mapper.DtoToUserMapper;
 import ru.practicum.shareit.user.mapper.UserMapper;
 
 import javax.persistence.EntityNotFoundException;
+import java.sql.SQLException;
 import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -25,15 +37,18 @@ import java.util.Collection;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final EntityExistence entityExistence;
+
+    private static final int DEFAULT_PAGE_SIZE = 10;
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final List<String> EMAIL_CONSTRAINTS = List.of("uq_users_email_normalized", "uq_user_email");
 
     @Override
     @Transactional(isolation = Isolation.READ_COMMITTED)
     public UserDto createUser(UserDto userDto) {
-        try {
-            return UserMapper.toUserDto(userRepository.save(DtoToUserMapper.toUser(userDto)));
-        } catch (Exception e) {
-            throw new AlreadyExistEmailException("Email is used");
-        }
+        User saved = saveWithUniqueEmail(DtoToUserMapper.toUser(userDto));
+        entityExistence.created(EntityExistence.Kind.USER, saved.getId());
+        return UserMapper.toUserDto(saved);
     }
 
     @Override
@@ -49,17 +64,10 @@ public class UserServiceImpl implements UserService {
         }
 
         if (userDtoPatch.getEmail() != null) {
-            if (user.getEmail().equals(userDtoPatch.getEmail())) {
-                user.setEmail(userDtoPatch.getEmail());
-            } else {
-                if (userRepository.getByEmailContainingIgnoreCase(userDtoPatch.getEmail()) != null) {
-                    throw new AlreadyExistEmailException("Email is used");
-                }
-            }
             user.setEmail(userDtoPatch.getEmail());
         }
 
-        return UserMapper.toUserDto(userRepository.save(user));
+        return UserMapper.toUserDto(saveWithUniqueEmail(user));
     }
 
     @Override
@@ -74,8 +82,35 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @Transactional(readOnly = true, isolation = Isolation.READ_COMMITTED)
-    public Collection<User> getUsers() {
-        return userRepository.findAll();
+    public Collection<UserDto> getUsers() {
+        try (Stream<UserDto> users = userRepository.streamAll()) {
+            return users.collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.READ_COMMITTED)
+    public UserSlice getUsers(Integer size, String cursor) {
+        int limit = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (limit <= 0) {
+            throw new InvalidDataException("Size must be positive");
+        }
+        Long afterId = cursor != null ? UserCursor.decode(cursor).getId() : 0L;
+        List<UserDto> users = userRepository.findPageAfter(afterId, PageRequest.of(0, limit + 1));
+        String nextCursor = null;
+        if (users.size() > limit) {
+            users = users.subList(0, limit);
+            nextCursor = new UserCursor(users.get(limit - 1).getId()).encode();
+        }
+        return new UserSlice(users, nextCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.READ_COMMITTED)
+    public void streamUsers(Consumer<UserDto> consumer) {
+        try (Stream<UserDto> users = userRepository.streamAll()) {
+            users.forEach(consumer);
+        }
     }
 
     @Override
@@ -83,8 +118,34 @@ public class UserServiceImpl implements UserService {
     public void deleteUser(Long id) {
         try {
             userRepository.deleteById(id);
+            entityExistence.deleted(EntityExistence.Kind.USER, id);
         } catch (EntityNotFoundException | EmptyResultDataAccessException e) {
             throw new NotFoundException(String.format("Пользователя с id %s не существует", id));
         }
     }
+
+    /**
+     * The unique index on the normalized email is the source of truth, flushing here turns a concurrent
+     * insert of the same address into a conflict instead of a failed commit.
+     */
+    private User saveWithUniqueEmail(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailViolation(e)) {
+                throw new AlreadyExistEmailException("Email is used");
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isEmailViolation(DataIntegrityViolationException e) {
+        Throwable cause = e.getMostSpecificCause();
+        if (!(cause instanceof SQLException) || !UNIQUE_VIOLATION.equals(((SQLException) cause).getSQLState())
+                || cause.getMessage() == null) {
+            return false;
+        }
+        String message = cause.getMessage().toLowerCase(Locale.ROOT);
+        return EMAIL_CONSTRAINTS.stream().anyMatch(message::contains);
+    }
 }
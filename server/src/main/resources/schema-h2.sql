@@ -0,0 +1,6 @@
+ALTER TABLE users ADD COLUMN IF NOT EXISTS email_normalized VARCHAR(255) GENERATED ALWAYS AS (LOWER(TRIM(email)));
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_users_email_normalized ON users (email_normalized);
+
+-- test-data.sql inserts users with explicit ids, which the identity does not skip
+ALTER TABLE users ALTER COLUMN id RESTART WITH 100;
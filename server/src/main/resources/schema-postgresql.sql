@@ -0,0 +1,40 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+DO 'BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ''ex_booking_item_period'') THEN
+        ALTER TABLE bookings ADD CONSTRAINT ex_booking_item_period
+            EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+            WHERE (status IN (''WAITING'', ''APPROVED''));
+    END IF;
+EXCEPTION
+    WHEN exclusion_violation THEN
+        RAISE WARNING ''ex_booking_item_period not created: bookings table already has overlapping rows'';
+END';
+
+DO 'BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = ''users'' AND column_name = ''email_normalized'' AND is_generated = ''NEVER'') THEN
+        ALTER TABLE users DROP COLUMN email_normalized;
+    END IF;
+    ALTER TABLE users ADD COLUMN IF NOT EXISTS email_normalized VARCHAR(255)
+        GENERATED ALWAYS AS (lower(trim(email))) STORED;
+    IF NOT EXISTS (SELECT 1 FROM pg_class WHERE relname = ''uq_users_email_normalized'') THEN
+        IF EXISTS (SELECT 1 FROM users GROUP BY email_normalized HAVING count(*) > 1) THEN
+            RAISE EXCEPTION ''uq_users_email_normalized not created, change the duplicate addresses first: %'',
+                (SELECT string_agg(email_normalized, '', '') FROM
+                    (SELECT email_normalized FROM users GROUP BY email_normalized HAVING count(*) > 1 LIMIT 20) d);
+        ELSE
+            CREATE UNIQUE INDEX uq_users_email_normalized ON users (email_normalized);
+        END IF;
+    END IF;
+END';
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', name || ' ' || description)) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_items_search_vector ON items USING gin (search_vector);
+
+CREATE INDEX IF NOT EXISTS idx_items_name_trgm ON items USING gin (lower(name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_items_description_trgm ON items USING gin (lower(description) gin_trgm_ops);
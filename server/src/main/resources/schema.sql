@@ -39,6 +39,10 @@ CREATE TABLE IF NOT EXISTS bookings (
   CONSTRAINT fk_bok_booker_booker_id FOREIGN KEY(booker_id) REFERENCES users (id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC, id DESC);
+
 CREATE TABLE IF NOT EXISTS comments (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   text VARCHAR(255) NOT NULL,
@@ -48,4 +52,14 @@ CREATE TABLE IF NOT EXISTS comments (
   CONSTRAINT pk_comments PRIMARY KEY (id),
   CONSTRAINT fk_com_item_id FOREIGN KEY(item_id) REFERENCES items (id),
   CONSTRAINT fk_com_author_id FOREIGN KEY(author_id) REFERENCES users (id)
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS request_suggestions (
+  request_id BIGINT NOT NULL,
+  item_id BIGINT NOT NULL,
+  CONSTRAINT pk_request_suggestion PRIMARY KEY (request_id, item_id),
+  CONSTRAINT fk_sug_request_id FOREIGN KEY(request_id) REFERENCES requests (id) ON DELETE CASCADE,
+  CONSTRAINT fk_sug_item_id FOREIGN KEY(item_id) REFERENCES items (id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_request_suggestions_item ON request_suggestions (item_id);
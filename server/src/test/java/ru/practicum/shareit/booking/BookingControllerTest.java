@@ -7,12 +7,13 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookerDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoCreate;
+import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.dto.BookingSlice;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.nio.charset.StandardCharsets;
@@ -25,6 +26,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -56,8 +58,8 @@ class BookingControllerTest {
             1L,
             LocalDateTime.now(),
             LocalDateTime.now().plusHours(1),
-            new Item(1L, null, null, null, null, null),
-            new User(1L, null, null),
+            new BookingItemDto(1L, "item"),
+            new BookerDto(1L),
             StatusOfBooking.WAITING);
 
 
@@ -101,8 +103,8 @@ class BookingControllerTest {
                 1L,
                 LocalDateTime.now(),
                 LocalDateTime.now().plusHours(1),
-                new Item(1L, null, null, null, null, null),
-                new User(1L, null, null),
+                new BookingItemDto(1L, "item"),
+                new BookerDto(1L),
                 StatusOfBooking.APPROVED);
 
         when(bookingService.updateBooking(any(), any(), any())).thenReturn(bookingDtoCreate2);
@@ -167,7 +169,8 @@ class BookingControllerTest {
         ArrayList<BookingDtoCreate> bookingDtoCreates = new ArrayList<>();
         bookingDtoCreates.add(bookingDtoCreate);
 
-        when(bookingService.getBookingsByState(any(), any(), anyLong(), any())).thenReturn(bookingDtoCreates);
+        when(bookingService.getBookingsByState(any(), any(), anyLong(), any(), any()))
+                .thenReturn(new BookingSlice(bookingDtoCreates, null));
 
         mvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", userDto.getId())
@@ -190,7 +193,8 @@ class BookingControllerTest {
         ArrayList<BookingDtoCreate> bookingDtoCreates = new ArrayList<>();
         bookingDtoCreates.add(bookingDtoCreate);
 
-        when(bookingService.getBookingsItemsByOwner(any(), any(), anyLong(), any())).thenReturn(bookingDtoCreates);
+        when(bookingService.getBookingsItemsByOwner(any(), any(), anyLong(), any(), any()))
+                .thenReturn(new BookingSlice(bookingDtoCreates, "next"));
 
         mvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", userDto.getId())
@@ -200,6 +204,7 @@ class BookingControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
                 .andExpect(jsonPath("$[0].id", is(bookingDtoCreate.getId()), Long.class))
                 .andExpect(jsonPath("$[0].start", notNullValue()))
                 .andExpect(jsonPath("$[0].end", notNullValue()))
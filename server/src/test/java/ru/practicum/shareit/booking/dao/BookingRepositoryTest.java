@@ -6,11 +6,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRole;
+import ru.practicum.shareit.booking.BookingState;
 import ru.practicum.shareit.booking.StatusOfBooking;
 import ru.practicum.shareit.item.dao.CommentRepository;
 import ru.practicum.shareit.item.dao.ItemRepository;
@@ -83,7 +83,7 @@ class BookingRepositoryTest {
     }
 
     @Test
-    void findByBooker_IdAndStatusContainingIgnoreCase() {
+    void findBookings_BookerWaiting() {
         User user = userRepository.save(new User(1L, "Test", "test90@mail.com"));
         User user2 = userRepository.save(new User(2L, "Test2", "test9022@mail.com"));
         ItemRequest itemRequest = requestRepository.save(
@@ -100,14 +100,14 @@ class BookingRepositoryTest {
         Assertions.assertNotNull(booking.getId());
 
         List<Booking> bookings = bookingRepository
-                .findByBooker_IdAndStatusContainingIgnoreCase(user2.getId(), StatusOfBooking.WAITING.toString());
+                .findBookings(BookingRole.BOOKER, user2.getId(), BookingState.WAITING, LocalDateTime.now(), null, 0, null);
 
         assertEquals(1, bookings.size());
         assertFalse(bookings.isEmpty());
     }
 
     @Test
-    void getBookingItemsByOwner_Id() {
+    void findBookings_OwnerAll() {
         User user = userRepository.save(new User(1L, "Test", "test90@mail.com"));
         User user2 = userRepository.save(new User(2L, "Test2", "test9022@mail.com"));
         ItemRequest itemRequest = requestRepository.save(
@@ -124,14 +124,14 @@ class BookingRepositoryTest {
         Assertions.assertNotNull(booking.getId());
 
         List<Booking> bookings = bookingRepository
-                .getBookingItemsByOwner_Id(user2.getId());
+                .findBookings(BookingRole.OWNER, user2.getId(), BookingState.ALL, LocalDateTime.now(), null, 0, null);
 
         assertEquals(1, bookings.size());
         assertFalse(bookings.isEmpty());
     }
 
     @Test
-    void testGetBookingItemsByOwner_Id() {
+    void findBookings_OwnerAllLimited() {
         User user = userRepository.save(new User(1L, "Test", "test90@mail.com"));
         User user2 = userRepository.save(new User(2L, "Test2", "test9022@mail.com"));
         ItemRequest itemRequest = requestRepository.save(
@@ -147,16 +147,15 @@ class BookingRepositoryTest {
         Assertions.assertNotNull(booking);
         Assertions.assertNotNull(booking.getId());
 
-        Pageable page = PageRequest.of(100 / 400, 400);
         List<Booking> bookings = bookingRepository
-                .getBookingItemsByOwner_Id(user2.getId(), page).toList();
+                .findBookings(BookingRole.OWNER, user2.getId(), BookingState.ALL, LocalDateTime.now(), null, 0, 400);
 
         assertEquals(1, bookings.size());
         assertFalse(bookings.isEmpty());
     }
 
     @Test
-    void getBookingItemsByOwner_IdStatus() {
+    void findBookings_OwnerWaiting() {
         User user = userRepository.save(new User(1L, "Test", "test90@mail.com"));
         User user2 = userRepository.save(new User(2L, "Test2", "test9022@mail.com"));
         ItemRequest itemRequest = requestRepository.save(
@@ -173,14 +172,14 @@ class BookingRepositoryTest {
         Assertions.assertNotNull(booking.getId());
 
         List<Booking> bookings = bookingRepository
-                .getBookingItemsByOwner_IdStatus(user2.getId(), StatusOfBooking.WAITING.toString());
+                .findBookings(BookingRole.OWNER, user2.getId(), BookingState.WAITING, LocalDateTime.now(), null, 0, null);
 
         assertEquals(1, bookings.size());
         assertFalse(bookings.isEmpty());
     }
 
     @Test
-    void getBookingItemsByOwner_IdFuture() {
+    void findBookings_OwnerFuture() {
         User user = userRepository.save(new User(1L, "Test", "test90@mail.com"));
         User user2 = userRepository.save(new User(2L, "Test2", "test9022@mail.com"));
         ItemRequest itemRequest = requestRepository.save(
@@ -197,15 +196,15 @@ class BookingRepositoryTest {
         Assertions.assertNotNull(booking.getId());
 
         List<Booking> bookings = bookingRepository
-                .getBookingItemsByOwner_IdFuture(user2.getId(),
-                        Timestamp.valueOf(LocalDateTime.now().minusHours(1)));
+                .findBookings(BookingRole.OWNER, user2.getId(), BookingState.FUTURE,
+                        LocalDateTime.now().minusHours(1), null, 0, null);
 
         assertEquals(1, bookings.size());
         assertFalse(bookings.isEmpty());
     }
 
     @Test
-    void getBookingItemsByOwner_IdCurrent() {
+    void findBookings_OwnerCurrent() {
         User user = userRepository.save(new User(1L, "Test", "test90@mail.com"));
         User user2 = userRepository.save(new User(2L, "Test2", "test9022@mail.com"));
         ItemRequest itemRequest = requestRepository.save(
@@ -222,15 +221,15 @@ class BookingRepositoryTest {
         Assertions.assertNotNull(booking.getId());
 
         List<Booking> bookings = bookingRepository
-                .getBookingItemsByOwner_IdFuture(user2.getId(),
-                        Timestamp.valueOf(LocalDateTime.now().plusMinutes(10)));
+                .findBookings(BookingRole.OWNER, user2.getId(), BookingState.CURRENT,
+                        LocalDateTime.now().plusMinutes(10), null, 0, null);
 
-        assertEquals(0, bookings.size());
+        assertEquals(1, bookings.size());
     }
 
 
     @Test
-    void getBookingItemsByOwner_IdPast() {
+    void findBookings_OwnerPast() {
         User user = userRepository.save(new User(1L, "Test", "test90@mail.com"));
         User user2 = userRepository.save(new User(2L, "Test2", "test9022@mail.com"));
         ItemRequest itemRequest = requestRepository.save(
@@ -247,8 +246,8 @@ class BookingRepositoryTest {
         Assertions.assertNotNull(booking.getId());
 
         List<Booking> bookings = bookingRepository
-                .getBookingItemsByOwner_IdPast(user2.getId(),
-                        Timestamp.valueOf(LocalDateTime.now().plusHours(3)));
+                .findBookings(BookingRole.OWNER, user2.getId(), BookingState.PAST,
+                        LocalDateTime.now().plusHours(3), null, 0, null);
 
         assertEquals(1, bookings.size());
         assertFalse(bookings.isEmpty());
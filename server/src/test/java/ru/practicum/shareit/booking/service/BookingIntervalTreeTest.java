@@ -0,0 +1,62 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingIntervalTreeTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    void overlaps() {
+        BookingIntervalTree tree = new BookingIntervalTree();
+        tree.insert(1L, at(10), at(20));
+        tree.insert(2L, at(30), at(40));
+
+        assertTrue(tree.overlaps(at(15), at(16)));
+        assertTrue(tree.overlaps(at(5), at(11)));
+        assertTrue(tree.overlaps(at(39), at(50)));
+        assertFalse(tree.overlaps(at(20), at(30)));
+        assertFalse(tree.overlaps(at(0), at(10)));
+        assertFalse(tree.overlaps(at(40), at(41)));
+    }
+
+    @Test
+    void overlaps_NestedIntervals() {
+        BookingIntervalTree tree = new BookingIntervalTree();
+        tree.insert(1L, at(0), at(100));
+        for (long i = 2; i < 50; i++) {
+            tree.insert(i, at(i * 2), at(i * 2 + 1));
+        }
+
+        assertTrue(tree.overlaps(at(99), at(200)));
+        assertFalse(tree.overlaps(at(100), at(200)));
+    }
+
+    @Test
+    void remove() {
+        BookingIntervalTree tree = new BookingIntervalTree();
+        for (long i = 0; i < 100; i++) {
+            tree.insert(i, at(i * 10), at(i * 10 + 5));
+        }
+        for (long i = 0; i < 100; i += 2) {
+            tree.remove(i, at(i * 10));
+        }
+
+        assertEquals(50, tree.size());
+        assertFalse(tree.overlaps(at(0), at(5)));
+        assertTrue(tree.overlaps(at(10), at(11)));
+        assertFalse(tree.overlaps(at(980), at(990)));
+        assertTrue(tree.overlaps(at(994), at(995)));
+    }
+
+    private Timestamp at(long minutes) {
+        return Timestamp.valueOf(now.plusMinutes(minutes));
+    }
+}
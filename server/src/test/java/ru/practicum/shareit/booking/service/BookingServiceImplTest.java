@@ -1,12 +1,16 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.SqlGroup;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,20 +19,30 @@ import ru.practicum.shareit.booking.StatusOfBooking;
 import ru.practicum.shareit.booking.dao.BookingRepository;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoCreate;
+import ru.practicum.shareit.booking.dto.BookingSlice;
 import ru.practicum.shareit.exceptions.BadRequestException;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.InvalidDataException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.existence.EntityExistence;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.user.dao.UserRepository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
 
 @Transactional
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
@@ -45,13 +59,19 @@ class BookingServiceImplTest {
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @BeforeEach
     public void setUp() {
+        EntityExistence entityExistence = new EntityExistence(userRepository, itemRepository, bookingRepository);
+        entityExistence.reload();
         bookingService = new BookingServiceImpl(
                 bookingRepository,
                 userRepository,
-                itemRepository);
+                itemRepository,
+                new BookingIntervalIndex(bookingRepository),
+                entityExistence,
+                eventPublisher);
     }
 
     @Test
@@ -61,6 +81,20 @@ class BookingServiceImplTest {
                         LocalDateTime.now().plusHours(2), 1L, 1L, StatusOfBooking.APPROVED)));
     }
 
+    @Test
+    void createBooking_OverlapViolation() {
+        BookingRepository failingRepository = Mockito.mock(BookingRepository.class);
+        when(failingRepository.save(any())).thenThrow(new DataIntegrityViolationException("overlap",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+        BookingServiceImpl service = new BookingServiceImpl(failingRepository, userRepository, itemRepository,
+                new BookingIntervalIndex(failingRepository),
+                new EntityExistence(userRepository, itemRepository, failingRepository), eventPublisher);
+
+        assertThrows(ConflictException.class, () -> service.createBooking(1L,
+                new BookingDto(null, LocalDateTime.now().plusHours(1),
+                        LocalDateTime.now().plusHours(2), 1L, 1L, null)));
+    }
+
     @Test
     void check_AllParams() {
         assertThrows(BadRequestException.class, () -> bookingService.check(1L, new BookingDto(1L, null,
@@ -99,6 +133,43 @@ class BookingServiceImplTest {
                 LocalDateTime.now().plusHours(2), 1L, 1L, StatusOfBooking.APPROVED)));
     }
 
+    @Test
+    void check_Overlap() {
+        bookingRepository.save(new Booking(2L,
+                Timestamp.valueOf(LocalDateTime.now().plusHours(1)),
+                Timestamp.valueOf(LocalDateTime.now().plusHours(3)),
+                itemRepository.getById(1L),
+                userRepository.getById(3L),
+                StatusOfBooking.WAITING));
+
+        assertThrows(ConflictException.class, () -> bookingService.check(1L, new BookingDto(null,
+                LocalDateTime.now().plusHours(2),
+                LocalDateTime.now().plusHours(4), 1L, 1L, null)));
+
+        bookingService.check(1L, new BookingDto(null,
+                LocalDateTime.now().plusHours(4),
+                LocalDateTime.now().plusHours(5), 1L, 1L, null));
+    }
+
+    @Test
+    void check_OverlapWithRejected() {
+        bookingRepository.save(new Booking(2L,
+                Timestamp.valueOf(LocalDateTime.now().plusHours(1)),
+                Timestamp.valueOf(LocalDateTime.now().plusHours(3)),
+                itemRepository.getById(1L),
+                userRepository.getById(3L),
+                StatusOfBooking.WAITING));
+        assertThrows(ConflictException.class, () -> bookingService.check(1L, new BookingDto(null,
+                LocalDateTime.now().plusHours(2),
+                LocalDateTime.now().plusHours(4), 1L, 1L, null)));
+
+        bookingService.updateBooking(2L, 2L, false);
+
+        bookingService.check(1L, new BookingDto(null,
+                LocalDateTime.now().plusHours(2),
+                LocalDateTime.now().plusHours(4), 1L, 1L, null));
+    }
+
     @Test
     void updateBooking_BadRequests() {
         assertThrows(BadRequestException.class, () -> bookingService.updateBooking(1L, 1L, true));
@@ -148,14 +219,14 @@ class BookingServiceImplTest {
 
     @Test
     void getBookingsByState_BadUserId() {
-        assertThrows(NotFoundException.class, () -> bookingService.getBookingsByState(9999L, "ALL", 10L, 10L));
+        assertThrows(NotFoundException.class, () -> bookingService.getBookingsByState(9999L, "ALL", 10L, 10L, null));
     }
 
     @Test
     void getBookingsByState_ALL() {
 
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsByState(1L, "ALL", 100L, 100L);
+                .getBookingsByState(1L, "ALL", 100L, 100L, null).getBookings();
 
         assertEquals(0, bookingDtoCreates.size());
     }
@@ -170,7 +241,7 @@ class BookingServiceImplTest {
                 StatusOfBooking.WAITING));
 
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsByState(1L, "ALL", null, null);
+                .getBookingsByState(1L, "ALL", null, null, null).getBookings();
 
         assertEquals(2, bookingDtoCreates.size());
     }
@@ -179,7 +250,7 @@ class BookingServiceImplTest {
     void getBookingsByState_Current() {
 
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsByState(1L, "CURRENT", 100L, 100L);
+                .getBookingsByState(1L, "CURRENT", 100L, 100L, null).getBookings();
 
         assertEquals(0, bookingDtoCreates.size());
 
@@ -195,7 +266,7 @@ class BookingServiceImplTest {
                 StatusOfBooking.WAITING));
 
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsByState(1L, "CURRENT", null, null);
+                .getBookingsByState(1L, "CURRENT", null, null, null).getBookings();
 
         assertEquals(1, bookingDtoCreates.size());
     }
@@ -203,7 +274,7 @@ class BookingServiceImplTest {
     @Test
     void getBookingsByState_Past() {
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsByState(1L, "PAST", 100L, 100L);
+                .getBookingsByState(1L, "PAST", 100L, 100L, null).getBookings();
 
         assertEquals(0, bookingDtoCreates.size());
     }
@@ -218,7 +289,7 @@ class BookingServiceImplTest {
                 StatusOfBooking.WAITING));
 
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsByState(1L, "PAST", null, null);
+                .getBookingsByState(1L, "PAST", null, null, null).getBookings();
 
         assertEquals(2, bookingDtoCreates.size());
     }
@@ -227,7 +298,7 @@ class BookingServiceImplTest {
     @Test
     void getBookingsByState_Future() {
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsByState(1L, "FUTURE", 100L, 100L);
+                .getBookingsByState(1L, "FUTURE", 100L, 100L, null).getBookings();
 
         assertEquals(0, bookingDtoCreates.size());
     }
@@ -242,7 +313,7 @@ class BookingServiceImplTest {
                 StatusOfBooking.WAITING));
 
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsByState(1L, "FUTURE", null, null);
+                .getBookingsByState(1L, "FUTURE", null, null, null).getBookings();
 
         assertEquals(1, bookingDtoCreates.size());
     }
@@ -251,11 +322,10 @@ class BookingServiceImplTest {
     @Test
     void getBookingsByState_Waiting() {
 
-        assertThrows(InvalidDataAccessApiUsageException.class, () -> {
-            Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                    .getBookingsByState(1L, "WAITING", 6L, 20L);
-            assertEquals(1, bookingDtoCreates.size());
-        });
+        Collection<BookingDtoCreate> bookingDtoCreates = bookingService
+                .getBookingsByState(1L, "WAITING", 0L, 20L, null).getBookings();
+
+        assertEquals(1, bookingDtoCreates.size());
     }
 
     @Test
@@ -269,20 +339,17 @@ class BookingServiceImplTest {
                 StatusOfBooking.WAITING));
 
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsByState(1L, "WAITING", null, null);
+                .getBookingsByState(1L, "WAITING", null, null, null).getBookings();
 
         assertEquals(1, bookingDtoCreates.size());
     }
 
     @Test
     void getBookingsByState_Rejected() {
-        assertThrows(InvalidDataAccessApiUsageException.class, () -> {
-            Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                    .getBookingsByState(2L, "REJECTED", 100L, 100L);
-
-            assertEquals(0, bookingDtoCreates.size());
-        });
+        Collection<BookingDtoCreate> bookingDtoCreates = bookingService
+                .getBookingsByState(2L, "REJECTED", 100L, 100L, null).getBookings();
 
+        assertEquals(0, bookingDtoCreates.size());
     }
 
     @Test
@@ -295,7 +362,7 @@ class BookingServiceImplTest {
                 StatusOfBooking.REJECTED));
 
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsByState(1L, "REJECTED", null, null);
+                .getBookingsByState(1L, "REJECTED", null, null, null).getBookings();
 
         assertEquals(1, bookingDtoCreates.size());
     }
@@ -303,18 +370,18 @@ class BookingServiceImplTest {
     @Test
     void getBookingsByState_Default() {
         assertThrows(InvalidDataException.class, () -> bookingService
-                .getBookingsByState(1L, "Sllaa", 10L, 10L));
+                .getBookingsByState(1L, "Sllaa", 10L, 10L, null));
     }
 
     @Test
     void getBookingsItemsByOwner_BadUserId() {
-        assertThrows(NotFoundException.class, () -> bookingService.getBookingsItemsByOwner(9999L, "ALL", 10L, 10L));
+        assertThrows(NotFoundException.class, () -> bookingService.getBookingsItemsByOwner(9999L, "ALL", 10L, 10L, null));
     }
 
     @Test
     void getBookingsItemsByOwner_ALL() {
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsItemsByOwner(1L, "ALL", 100L, 100L);
+                .getBookingsItemsByOwner(1L, "ALL", 100L, 100L, null).getBookings();
 
         assertEquals(0, bookingDtoCreates.size());
     }
@@ -329,7 +396,7 @@ class BookingServiceImplTest {
                 StatusOfBooking.WAITING));
 
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsItemsByOwner(2L, "ALL", null, null);
+                .getBookingsItemsByOwner(2L, "ALL", null, null, null).getBookings();
 
         assertEquals(2, bookingDtoCreates.size());
 
@@ -338,7 +405,7 @@ class BookingServiceImplTest {
     @Test
     void getBookingsItemsByOwner_Current() {
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsItemsByOwner(1L, "CURRENT", 100L, 100L);
+                .getBookingsItemsByOwner(1L, "CURRENT", 100L, 100L, null).getBookings();
 
         assertEquals(0, bookingDtoCreates.size());
     }
@@ -353,7 +420,7 @@ class BookingServiceImplTest {
                 StatusOfBooking.WAITING));
 
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsItemsByOwner(2L, "CURRENT", null, null);
+                .getBookingsItemsByOwner(2L, "CURRENT", null, null, null).getBookings();
 
         assertEquals(1, bookingDtoCreates.size());
     }
@@ -361,7 +428,7 @@ class BookingServiceImplTest {
     @Test
     void getBookingsItemsByOwner_Past() {
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsItemsByOwner(1L, "PAST", 100L, 100L);
+                .getBookingsItemsByOwner(1L, "PAST", 100L, 100L, null).getBookings();
 
         assertEquals(0, bookingDtoCreates.size());
     }
@@ -376,7 +443,7 @@ class BookingServiceImplTest {
                 StatusOfBooking.WAITING));
 
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsItemsByOwner(2L, "PAST", null, null);
+                .getBookingsItemsByOwner(2L, "PAST", null, null, null).getBookings();
 
         assertEquals(2, bookingDtoCreates.size());
     }
@@ -385,7 +452,7 @@ class BookingServiceImplTest {
     @Test
     void getBookingsItemsByOwner_Future() {
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsItemsByOwner(1L, "FUTURE", 100L, 100L);
+                .getBookingsItemsByOwner(1L, "FUTURE", 100L, 100L, null).getBookings();
 
         assertEquals(0, bookingDtoCreates.size());
     }
@@ -400,7 +467,7 @@ class BookingServiceImplTest {
                 StatusOfBooking.WAITING));
 
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsItemsByOwner(2L, "FUTURE", null, null);
+                .getBookingsItemsByOwner(2L, "FUTURE", null, null, null).getBookings();
 
         assertEquals(1, bookingDtoCreates.size());
     }
@@ -408,11 +475,10 @@ class BookingServiceImplTest {
 
     @Test
     void getBookingsItemsByOwner_Waiting() {
-        assertThrows(InvalidDataAccessApiUsageException.class, () -> {
-            Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                    .getBookingsItemsByOwner(1L, StatusOfBooking.WAITING.toString(), 100L, 100L);
-            assertEquals(0, bookingDtoCreates.size());
-        });
+        Collection<BookingDtoCreate> bookingDtoCreates = bookingService
+                .getBookingsItemsByOwner(1L, StatusOfBooking.WAITING.toString(), 100L, 100L, null).getBookings();
+
+        assertEquals(0, bookingDtoCreates.size());
     }
 
     @Test
@@ -425,20 +491,17 @@ class BookingServiceImplTest {
                 StatusOfBooking.WAITING));
 
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsItemsByOwner(2L, "WAITING", null, null);
+                .getBookingsItemsByOwner(2L, "WAITING", null, null, null).getBookings();
 
         assertEquals(1, bookingDtoCreates.size());
     }
 
     @Test
     void getBookingsItemsByOwner_Rejected() {
+        Collection<BookingDtoCreate> bookingDtoCreates = bookingService
+                .getBookingsItemsByOwner(1L, "REJECTED", 100L, 100L, null).getBookings();
 
-        assertThrows(InvalidDataAccessApiUsageException.class, () -> {
-            Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                    .getBookingsItemsByOwner(1L, "REJECTED", 100L, 100L);
-            assertEquals(0, bookingDtoCreates.size());
-        });
-
+        assertEquals(0, bookingDtoCreates.size());
     }
 
     @Test
@@ -451,15 +514,85 @@ class BookingServiceImplTest {
                 StatusOfBooking.REJECTED));
 
         Collection<BookingDtoCreate> bookingDtoCreates = bookingService
-                .getBookingsItemsByOwner(2L, "REJECTED", null, null);
+                .getBookingsItemsByOwner(2L, "REJECTED", null, null, null).getBookings();
+
+        assertEquals(1, bookingDtoCreates.size());
+    }
+
+    @Test
+    void getBookingsItemsByOwner_OrderedByStartDesc() {
+        List<BookingDtoCreate> bookingDtoCreates = new ArrayList<>(bookingService
+                .getBookingsItemsByOwner(2L, "ALL", 0L, 1L, null).getBookings());
+
+        assertEquals(1, bookingDtoCreates.size());
+        assertEquals(1L, bookingDtoCreates.get(0).getId());
+
+        bookingDtoCreates = new ArrayList<>(bookingService
+                .getBookingsItemsByOwner(2L, "all", 1L, 1L, null).getBookings());
+
+        assertEquals(1, bookingDtoCreates.size());
+        assertEquals(2L, bookingDtoCreates.get(0).getId());
+    }
+
+    @Test
+    void getBookingsItemsByOwner_ConstantStatementCount() {
+        for (long id = 10; id < 15; id++) {
+            em.createNativeQuery("insert into bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                            "values (?, ?, ?, ?, ?, 'APPROVED')")
+                    .setParameter(1, id)
+                    .setParameter(2, Timestamp.valueOf(LocalDateTime.now().plusDays(id)))
+                    .setParameter(3, Timestamp.valueOf(LocalDateTime.now().plusDays(id).plusHours(1)))
+                    .setParameter(4, id % 2 == 0 ? 1L : 2L)
+                    .setParameter(5, id % 2 == 0 ? 1L : 3L)
+                    .executeUpdate();
+        }
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        Collection<BookingDtoCreate> bookingDtoCreates = bookingService
+                .getBookingsItemsByOwner(2L, "ALL", null, null, null).getBookings();
+
+        assertEquals(7, bookingDtoCreates.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void getBookingsItemsByOwner_FromNotMultipleOfSize() {
+        List<BookingDtoCreate> bookingDtoCreates = new ArrayList<>(bookingService
+                .getBookingsItemsByOwner(2L, "ALL", 1L, 2L, null).getBookings());
 
         assertEquals(1, bookingDtoCreates.size());
+        assertEquals(2L, bookingDtoCreates.get(0).getId());
+    }
+
+    @Test
+    void getBookingsItemsByOwner_Cursor() {
+        BookingSlice first = bookingService.getBookingsItemsByOwner(2L, "ALL", null, 1L, null);
+
+        assertEquals(1, first.getBookings().size());
+        assertEquals(1L, first.getBookings().iterator().next().getId());
+        assertNotNull(first.getNextCursor());
+
+        BookingSlice second = bookingService.getBookingsItemsByOwner(2L, "ALL", null, 1L, first.getNextCursor());
+
+        assertEquals(1, second.getBookings().size());
+        assertEquals(2L, second.getBookings().iterator().next().getId());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void getBookingsByState_InvalidCursor() {
+        assertThrows(InvalidDataException.class, () -> bookingService
+                .getBookingsByState(1L, "ALL", null, 10L, "not-a-cursor"));
     }
 
     @Test
     void getBookingsItemsByOwner_Default() {
         assertThrows(InvalidDataException.class, () -> bookingService
-                .getBookingsItemsByOwner(1L, "Sllaa", 10L, 10L));
+                .getBookingsItemsByOwner(1L, "Sllaa", 10L, 10L, null));
     }
 
 
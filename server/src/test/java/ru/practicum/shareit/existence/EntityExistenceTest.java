@@ -0,0 +1,127 @@
+package ru.practicum.shareit.existence;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlGroup;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.user.dao.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SqlGroup({
+        @Sql(scripts = "/schema.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD),
+        @Sql(scripts = "/test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD),
+})
+class EntityExistenceTest {
+
+    private final EntityManager em;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private EntityExistence entityExistence;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        entityExistence = new EntityExistence(userRepository, itemRepository, bookingRepository);
+        entityExistence.reload();
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void missingIdsBelowTheWatermarkAreAnsweredWithoutQueries() {
+        em.createNativeQuery("delete from comments").executeUpdate();
+        em.createNativeQuery("delete from bookings where id = 1").executeUpdate();
+        entityExistence.reload();
+
+        assertEquals(0, queries(() -> {
+            assertFalse(entityExistence.exists(EntityExistence.Kind.BOOKING, 1L));
+            assertFalse(entityExistence.exists(EntityExistence.Kind.USER, null));
+        }));
+    }
+
+    @Test
+    void idsAboveTheWatermarkAreCheckedInTheDatabase() {
+        em.createNativeQuery("insert into users (id, name, email) "
+                + "values (10, 'late', 'late@mail.ru')").executeUpdate();
+
+        assertTrue(entityExistence.exists(EntityExistence.Kind.USER, 10L));
+        assertFalse(entityExistence.exists(EntityExistence.Kind.USER, 11L));
+        assertTrue(entityExistence.exists(EntityExistence.Kind.USER, 1L));
+        assertTrue(entityExistence.exists(EntityExistence.Kind.ITEM, 2L));
+    }
+
+    @Test
+    void idTakenBeforeALoadButCommittedAfterItIsCheckedInTheDatabase() {
+        em.createNativeQuery("insert into users (id, name, email) "
+                + "values (20, 'next', 'next@mail.ru')").executeUpdate();
+        entityExistence.reload();
+        em.createNativeQuery("insert into users (id, name, email) "
+                + "values (15, 'slow', 'slow@mail.ru')").executeUpdate();
+
+        assertTrue(entityExistence.exists(EntityExistence.Kind.USER, 15L));
+    }
+
+    @Test
+    void idsCreatedDuringALoadAreInItsFilter() {
+        UserRepository users = mock(UserRepository.class);
+        EntityExistence existence = new EntityExistence(users, itemRepository, bookingRepository);
+        when(users.findAllIds()).thenReturn(List.of(1L, 100L));
+        existence.reload();
+        when(users.findAllIds()).thenAnswer(invocation -> {
+            existence.created(EntityExistence.Kind.USER, 50L);
+            existence.reload();
+            return List.of(1L, 100L);
+        });
+        when(users.existsById(50L)).thenReturn(true);
+
+        existence.reload();
+
+        assertTrue(existence.exists(EntityExistence.Kind.USER, 50L));
+        verify(users, times(2)).findAllIds();
+    }
+
+    @Test
+    void committedCreatesAreCachedAndDeletesForgotten() {
+        entityExistence.created(EntityExistence.Kind.ITEM, 50L);
+        assertEquals(1, queries(() -> assertFalse(entityExistence.exists(EntityExistence.Kind.ITEM, 50L))));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(0, queries(() -> assertTrue(entityExistence.exists(EntityExistence.Kind.ITEM, 50L))));
+
+        entityExistence.deleted(EntityExistence.Kind.ITEM, 50L);
+        assertEquals(1, queries(() -> assertFalse(entityExistence.exists(EntityExistence.Kind.ITEM, 50L))));
+    }
+
+    private long queries(Runnable action) {
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            action.run();
+            return statistics.getPrepareStatementCount();
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.dto.BookingDto;
@@ -13,18 +14,27 @@ import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoById;
 import ru.practicum.shareit.item.dto.ItemDtoPatch;
+import ru.practicum.shareit.item.dto.ItemFacetsDto;
+import ru.practicum.shareit.item.dto.ItemSearchDto;
+import ru.practicum.shareit.item.dto.OwnerFacetDto;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -193,6 +203,34 @@ class ItemControllerTest {
 
     }
 
+    @Test
+    void getItemById_NotModifiedWhileUnchanged() throws Exception {
+        when(itemService.getItemById(any(), any()))
+                .thenReturn(new ItemDtoById(1L, "tEST", "tEST", false, null, null, new ArrayList<>()));
+
+        String etag = mvc.perform(get("/items/1")
+                        .header("X-Sharer-User-Id", userDto.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, "X-Sharer-User-Id"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/items/1")
+                        .header("X-Sharer-User-Id", userDto.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        when(itemService.getItemById(any(), any()))
+                .thenReturn(new ItemDtoById(1L, "tEST", "tEST", true, null, null, new ArrayList<>()));
+
+        mvc.perform(get("/items/1")
+                        .header("X-Sharer-User-Id", userDto.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+                .andExpect(jsonPath("$.available", is(true)));
+    }
+
     @Test
     void getSearchItems() throws Exception {
 
@@ -219,6 +257,37 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$[0].available", is(itemDto.getAvailable())));
     }
 
+    @Test
+    void getSearchItems_Fuzzy() throws Exception {
+        when(itemService.getFuzzySearchItems(any(), any(), any()))
+                .thenReturn(List.of(itemDto));
+
+        mvc.perform(get("/items/search")
+                        .param("text", "tset")
+                        .param("fuzzy", "true")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class));
+        verify(itemService, never()).getSearchItems(any(), any(), any());
+    }
+
+    @Test
+    void getSearchItems_Facets() throws Exception {
+        when(itemService.getSearchItemsWithFacets(any(), any(), any()))
+                .thenReturn(new ItemSearchDto(List.of(itemDto),
+                        new ItemFacetsDto(1, 2, 0, 1, List.of(new OwnerFacetDto(userDto.getId(), 1)))));
+
+        mvc.perform(get("/items/search")
+                        .param("text", "test")
+                        .param("facets", "true")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id", is(itemDto.getId()), Long.class))
+                .andExpect(jsonPath("$.facets.unavailable", is(2)))
+                .andExpect(jsonPath("$.facets.owners[0].ownerId", is(userDto.getId()), Long.class));
+        verify(itemService, never()).getSearchItems(any(), any(), any());
+    }
+
     @Test
     void addComment() throws Exception {
 
@@ -6,9 +6,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import ru.practicum.shareit.item.model.Item;
@@ -104,29 +104,12 @@ class ItemRepositoryTest {
         Assertions.assertNotNull(item.getId());
 
         Pageable page = PageRequest.of(100 / 400, 400);
-        Page<Item> items = itemRepository.getSearchItems("desc", page);
+        Slice<Item> items = itemRepository.getSearchItems("desc", page);
 
         assertEquals(1, items.get().collect(Collectors.toList()).size());
         assertEquals("desc", items.get().collect(Collectors.toList()).get(0).getName());
     }
 
-    @Test
-    void findAllByRequestorId() {
-        User user = userRepository.save(new User(1L, "Test", "test90@mail.com"));
-        ItemRequest itemRequest = requestRepository.save(
-                new ItemRequest(1L, "text",
-                        user, LocalDateTime.now()));
-
-        Item item = itemRepository.save(new Item(1L, "desc", "name", true, user, itemRequest));
-
-        Assertions.assertNotNull(item);
-        Assertions.assertNotNull(item.getId());
-
-        List<Item> items = itemRepository.findAllByRequestorId(1L);
-
-        assertEquals(0, items.size());
-    }
-
     @Test
     void findAllByRequestId() {
         User user = userRepository.save(new User(1L, "Test", "test90@mail.com"));
@@ -145,21 +128,20 @@ class ItemRepositoryTest {
     }
 
     @Test
-    void findAllNotId() {
+    void findAllByRequestIdIn() {
         User user = userRepository.save(new User(1L, "Test", "test90@mail.com"));
         User user2 = userRepository.save(new User(2L, "Test2", "test9022@mail.com"));
-        ItemRequest itemRequest = requestRepository.save(
-                new ItemRequest(1L, "text",
-                        user, LocalDateTime.now()));
-
-        Item item = itemRepository.save(new Item(1L, "desc", "name", true, user2, itemRequest));
-
-        Assertions.assertNotNull(item);
-        Assertions.assertNotNull(item.getId());
-
-        List<Item> items = itemRepository.findAllNotId(1L);
-
-        assertEquals(1, items.size());
-
+        ItemRequest first = requestRepository.save(new ItemRequest(null, "first", user, LocalDateTime.now()));
+        ItemRequest second = requestRepository.save(new ItemRequest(null, "second", user, LocalDateTime.now()));
+        ItemRequest other = requestRepository.save(new ItemRequest(null, "other", user2, LocalDateTime.now()));
+        Item forFirst = itemRepository.save(new Item(null, "drill", "desc", true, user2, first));
+        Item forSecond = itemRepository.save(new Item(null, "saw", "desc", false, user2, second));
+        itemRepository.save(new Item(null, "tent", "desc", true, user, other));
+        itemRepository.save(new Item(null, "axe", "desc", true, user2, null));
+
+        List<Item> items = itemRepository.findAllByRequestIdIn(List.of(first.getId(), second.getId()));
+
+        assertEquals(List.of(forFirst.getId(), forSecond.getId()),
+                items.stream().map(Item::getId).collect(Collectors.toList()));
     }
-}
\ No newline at end of file
+}
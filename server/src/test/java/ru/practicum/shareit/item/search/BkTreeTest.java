@@ -0,0 +1,56 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BkTreeTest {
+
+    @Test
+    void distance() {
+        assertEquals(0, BkTree.distance("дрель", "дрель", 2));
+        assertEquals(1, BkTree.distance("дрель", "дрел", 2));
+        assertEquals(2, BkTree.distance("drill", "grills", 2));
+        assertEquals(3, BkTree.distance("kitten", "sitting", 5));
+        assertEquals(2, BkTree.distance("kitten", "sitting", 1));
+    }
+
+    @Test
+    void searchMatchesBruteForce() {
+        Random random = new Random(42);
+        Set<String> dictionary = new TreeSet<>();
+        for (int i = 0; i < 500; i++) {
+            dictionary.add(word(random));
+        }
+        BkTree tree = new BkTree();
+        dictionary.forEach(tree::add);
+        dictionary.forEach(tree::add);
+        assertEquals(dictionary.size(), tree.size());
+
+        for (int i = 0; i < 50; i++) {
+            String query = word(random);
+            for (int d = 0; d <= 2; d++) {
+                int max = d;
+                List<String> expected = dictionary.stream()
+                        .filter(term -> BkTree.distance(query, term, Integer.MAX_VALUE) <= max)
+                        .collect(Collectors.toList());
+                assertEquals(expected, tree.search(query, d).stream().sorted().collect(Collectors.toList()));
+            }
+        }
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 3 + random.nextInt(4);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(5)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,116 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.event.ItemSnapshot;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemSearchCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ItemSearchCache cache = new ItemSearchCache(registry, 1000);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<String, Collection<ItemDto>> loader = text -> {
+        loads.incrementAndGet();
+        return List.of(new ItemDto(1L, text, "description", true, null));
+    };
+
+    @Test
+    void normalizedQueriesShareEntry() {
+        cache.get("Cordless drill", 0, 10, false, loader);
+        Collection<ItemDto> cached = cache.get("  Cordless   drill ", 0, 10, false, loader);
+
+        assertEquals(1, loads.get());
+        assertEquals("Cordless drill", cached.iterator().next().getName());
+        cache.get("Cordless drill", 10, 10, false, loader);
+        cache.get("Cordless drill", 0, 10, true, loader);
+        assertEquals(3, loads.get());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", ItemSearchCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void changeEvictsOnlyMatchingQueries() {
+        cache.get("drill", 0, 10, false, loader);
+        cache.get("hammer", 0, 10, false, loader);
+        cache.get("drll", 0, 10, true, loader);
+
+        cache.onItemChanged(new ItemChangedEvent(null, item("Saw", true)));
+        assertEquals(3, cache.size());
+
+        cache.onItemChanged(new ItemChangedEvent(null, item("Cordless Drill", false)));
+        assertEquals(3, cache.size());
+
+        cache.onItemChanged(new ItemChangedEvent(item("Cordless Drill", true), null));
+        assertEquals(1, cache.size());
+        cache.get("hammer", 0, 10, false, loader);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void changeFindsPartialTermsTyposAndTermlessQueries() {
+        cache.get("dri", 0, 10, false, loader);
+        cache.get("drill bit", 0, 10, false, loader);
+        cache.get("hamer", 0, 10, true, loader);
+        cache.get("!!!", 0, 10, false, loader);
+
+        cache.onItemChanged(new ItemChangedEvent(null, item("Claw Hammer", true)));
+        assertEquals(2, cache.size());
+
+        cache.onItemChanged(new ItemChangedEvent(null, item("Cordless Drill", true)));
+        assertEquals(1, cache.size());
+        cache.get("drill bit", 0, 10, false, loader);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void indexFollowsTheCachedPages() {
+        cache.get("drill", 0, 10, false, loader);
+        cache.get("drll", 0, 10, true, loader);
+        cache.get("hammer", 0, 10, false, loader);
+
+        cache.onItemChanged(new ItemChangedEvent(null, item("Drill", true)));
+        assertEquals(1, cache.indexedKeys());
+
+        cache.get("drill", 0, 10, false, loader);
+        cache.get("drill", 0, 10, false, loader);
+        assertEquals(2, cache.indexedKeys());
+        cache.onItemChanged(new ItemChangedEvent(item("Drill", true), null));
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.indexedKeys());
+    }
+
+    @Test
+    void deletionVariantsOfCloseTermsMeet() {
+        Set<String> typo = ItemSearchCache.deletions("drll", 1);
+        Set<String> term = ItemSearchCache.deletions("drill", 2);
+
+        assertTrue(typo.stream().anyMatch(term::contains));
+        assertEquals(Set.of("ab", "a", "b"), ItemSearchCache.deletions("ab", 1));
+    }
+
+    @Test
+    void pageLoadedDuringChangeIsNotStored() {
+        cache.get("drill", 0, 10, false, text -> {
+            cache.onItemChanged(new ItemChangedEvent(null, item("Drill", true)));
+            return loader.apply(text);
+        });
+        cache.get("drill", 0, 10, false, loader);
+
+        assertEquals(2, loads.get());
+    }
+
+    private static ItemSnapshot item(String name, boolean available) {
+        return new ItemSnapshot(1L, name, "description", available, 1L, null);
+    }
+}
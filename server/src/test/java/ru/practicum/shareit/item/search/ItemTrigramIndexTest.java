@@ -0,0 +1,78 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemFacetsDto;
+import ru.practicum.shareit.item.dto.OwnerFacetDto;
+import ru.practicum.shareit.item.event.ItemSnapshot;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemTrigramIndexTest {
+
+    @Test
+    void searchMatchesSubstringsOfAvailableItems() {
+        ItemTrigramIndex index = new ItemTrigramIndex();
+        index.put(item(1L, "Дрель", "Простая дрель", true));
+        index.put(item(2L, "Cordless Drill", "Fast screwdriver", true));
+        index.put(item(3L, "Drill press", "Heavy", false));
+
+        assertEquals(List.of(1L), ids(index.search("ДРЕЛ")));
+        assertEquals(List.of(2L), ids(index.search("drill")));
+        assertEquals(List.of(2L), ids(index.search("st scr")));
+        assertEquals(List.of(2L), ids(index.search("r")));
+        assertEquals(List.of(), ids(index.search("hammer")));
+    }
+
+    @Test
+    void putReplacesAndRemoveDeletes() {
+        ItemTrigramIndex index = new ItemTrigramIndex();
+        index.put(item(1L, "Drill", "Old", true));
+        index.put(item(1L, "Saw", "New", true));
+
+        assertEquals(List.of(), ids(index.search("drill")));
+        assertEquals(List.of(1L), ids(index.search("saw")));
+
+        index.put(item(1L, "Saw", "New", false));
+        assertEquals(List.of(), ids(index.search("saw")));
+
+        index.remove(1L);
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void compactionKeepsLiveItems() {
+        ItemTrigramIndex index = new ItemTrigramIndex();
+        for (int i = 0; i < 3000; i++) {
+            index.put(item(1L, "Drill " + i, "Tool", true));
+        }
+        index.put(item(2L, "Hammer", "Tool", true));
+
+        assertEquals(2, index.size());
+        assertEquals(List.of(1L, 2L), ids(index.search("tool")));
+        assertEquals(List.of(1L), ids(index.search("drill 2999")));
+    }
+
+    @Test
+    void facetsCountTheSameCandidates() {
+        ItemTrigramIndex index = new ItemTrigramIndex();
+        index.put(new ItemSnapshot(1L, "Drill", "Tool", true, 7L, 1L));
+        index.put(new ItemSnapshot(2L, "Drill press", "Tool", true, 8L, null));
+        index.put(new ItemSnapshot(3L, "Hand drill", "Tool", true, 8L, null));
+        index.put(new ItemSnapshot(4L, "Old drill", "Tool", false, 9L, 1L));
+        index.put(new ItemSnapshot(5L, "Hammer", "Tool", true, 9L, null));
+
+        assertEquals(List.of(1L, 2L, 3L), ids(index.search("drill")));
+        assertEquals(new ItemFacetsDto(3, 1, 1, 2, List.of(new OwnerFacetDto(8L, 2))), index.facets("drill", 1));
+    }
+
+    private static ItemSnapshot item(Long id, String name, String description, boolean available) {
+        return new ItemSnapshot(id, name, description, available, 1L, null);
+    }
+
+    private static List<Long> ids(List<ItemSnapshot> items) {
+        return items.stream().map(ItemSnapshot::getId).collect(Collectors.toList());
+    }
+}
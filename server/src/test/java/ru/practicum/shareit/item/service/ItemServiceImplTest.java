@@ -1,10 +1,14 @@
 package ru.practicum.shareit.item.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.jdbc.SqlGroup;
@@ -13,21 +17,40 @@ import ru.practicum.shareit.booking.dao.BookingRepository;
 import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.NotOwnerException;
+import ru.practicum.shareit.existence.EntityExistence;
 import ru.practicum.shareit.item.dao.CommentRepository;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoById;
 import ru.practicum.shareit.item.dto.ItemDtoPatch;
+import ru.practicum.shareit.item.dto.ItemFacetsDto;
+import ru.practicum.shareit.item.dto.ItemSearchDto;
+import ru.practicum.shareit.item.dto.OwnerFacetDto;
+import ru.practicum.shareit.item.event.ItemChangedEvent;
+import ru.practicum.shareit.item.event.ItemSnapshot;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.FuzzyItemMatcher;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.LikeItemSearchEngine;
+import ru.practicum.shareit.item.similar.ItemSimilarityIndex;
+import ru.practicum.shareit.item.suggest.ItemNameSuggester;
 import ru.practicum.shareit.request.dao.RequestRepository;
+import ru.practicum.shareit.request.dao.RequestSuggestionRepository;
+import ru.practicum.shareit.request.match.RequestMatcher;
 import ru.practicum.shareit.user.dao.UserRepository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
@@ -41,20 +64,33 @@ class ItemServiceImplTest {
 
     private final EntityManager em;
     private ItemService itemService;
+    private ItemNameSuggester itemNameSuggester;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final RequestRepository requestRepository;
+    private final RequestSuggestionRepository suggestionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @BeforeEach
     public void setUp() {
+        itemNameSuggester = new ItemNameSuggester(itemRepository);
         itemService = new ItemServiceImpl(
                 itemRepository,
                 userRepository,
                 bookingRepository,
                 commentRepository,
-                requestRepository);
+                requestRepository,
+                new ItemDetailsAssembler(bookingRepository, commentRepository),
+                new LikeItemSearchEngine(itemRepository),
+                new ItemSearchCache(new SimpleMeterRegistry(), 1000),
+                new FuzzyItemMatcher(itemRepository),
+                itemNameSuggester,
+                new ItemSimilarityIndex(itemRepository),
+                new RequestMatcher(itemRepository, requestRepository, suggestionRepository),
+                new EntityExistence(userRepository, itemRepository, bookingRepository),
+                eventPublisher);
     }
 
     @Test
@@ -73,6 +109,37 @@ class ItemServiceImplTest {
 
     }
 
+    @Test
+    void getItems_LastAndNextBookingsInConstantStatements() {
+        em.createNativeQuery("insert into bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                        "values (10, ?, ?, 1, 1, 'APPROVED')")
+                .setParameter(1, Timestamp.valueOf(LocalDateTime.now().plusDays(1)))
+                .setParameter(2, Timestamp.valueOf(LocalDateTime.now().plusDays(2)))
+                .executeUpdate();
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<ItemDtoById> itemDtos = new ArrayList<>(itemService.getItems(2L, null, null));
+
+        assertEquals(3, statistics.getPrepareStatementCount());
+        statistics.setStatisticsEnabled(false);
+        assertEquals(2, itemDtos.size());
+        assertEquals(1L, itemDtos.get(0).getLastBooking().getId());
+        assertEquals(10L, itemDtos.get(0).getNextBooking().getId());
+        assertNull(itemDtos.get(1).getLastBooking());
+        assertNull(itemDtos.get(1).getNextBooking());
+    }
+
+    @Test
+    void getItemById_NotOwnerHasNoBookings() {
+        ItemDtoById itemDto = itemService.getItemById(1L, 1L);
+
+        assertNull(itemDto.getLastBooking());
+        assertEquals(0, itemDto.getComments().size());
+    }
+
     @Test
     void addNewItem_Bad() {
         ItemDto itemDto = new ItemDto(null, "name", "test", true);
@@ -164,6 +231,111 @@ class ItemServiceImplTest {
         assertEquals(0, itemDtos.size());
     }
 
+    @Test
+    void getSearchItems_SkipsUnavailableMatchedByName() {
+        assertEquals(0, itemService.getSearchItems("name2", null, null).size());
+        assertEquals(1, itemService.getSearchItems("NAME", null, null).size());
+    }
+
+    @Test
+    void getSearchItems_WildcardsAreLiteral() {
+        assertEquals(0, itemService.getSearchItems("%", null, null).size());
+        assertEquals(0, itemService.getSearchItems("n_me", null, null).size());
+    }
+
+    @Test
+    void getFuzzySearchItems_ToleratesTypos() {
+        em.createNativeQuery("insert into items (id, name, description, is_available, owner_id) values "
+                + "(10, 'Cordless drill', 'Fast screwdriver', true, 1), "
+                + "(11, 'Drill press', 'Heavy', true, 1), "
+                + "(12, 'Hammer', 'Steel', true, 1)").executeUpdate();
+
+        assertEquals(List.of(10L, 11L), ids(itemService.getFuzzySearchItems("dril", null, null)));
+        assertEquals(List.of(10L), ids(itemService.getFuzzySearchItems("cordles drll", null, null)));
+        assertEquals(List.of(10L), ids(itemService.getFuzzySearchItems("screwdrivr", null, null)));
+        assertEquals(List.of(11L), ids(itemService.getFuzzySearchItems("dril", 1L, 1L)));
+        assertEquals(List.of(1L), ids(itemService.getFuzzySearchItems("name2", null, null)));
+        assertEquals(List.of(), ids(itemService.getFuzzySearchItems("hamr", null, null)));
+        assertEquals(0, itemService.getFuzzySearchItems(" ", null, null).size());
+    }
+
+    @Test
+    void getFuzzySearchItems_PagesOnlyAvailableItems() {
+        em.createNativeQuery("insert into items (id, name, description, is_available, owner_id) values "
+                + "(10, 'Cordless drill', 'Fast', true, 1), "
+                + "(11, 'Drill press', 'Heavy', true, 1), "
+                + "(12, 'Drill bits', 'Steel', true, 1)").executeUpdate();
+        assertEquals(List.of(10L, 11L, 12L), ids(itemService.getFuzzySearchItems("drill", null, null)));
+        // the matcher follows item events, so it still has item 10
+        em.createNativeQuery("update items set is_available = false where id = 10").executeUpdate();
+        em.clear();
+
+        assertEquals(List.of(11L), ids(itemService.getFuzzySearchItems("drill", 0L, 1L)));
+        assertEquals(List.of(12L), ids(itemService.getFuzzySearchItems("drill", 1L, 1L)));
+    }
+
+    @Test
+    void getSearchItemsWithFacets() {
+        em.createNativeQuery("insert into items (id, name, description, is_available, owner_id, request_id) values "
+                + "(10, 'Drill', 'Tool', true, 1, 1), "
+                + "(11, 'Drill press', 'Tool', true, 3, null), "
+                + "(12, 'Old drill', 'Tool', false, 3, null), "
+                + "(13, 'Hammer', 'Tool', true, 3, null)").executeUpdate();
+
+        ItemSearchDto result = itemService.getSearchItemsWithFacets("DRILL", 1L, 1L);
+
+        assertEquals(List.of(11L), ids(result.getItems()));
+        assertEquals(ids(itemService.getSearchItems("DRILL", 1L, 1L)), ids(result.getItems()));
+        ItemFacetsDto facets = result.getFacets();
+        assertEquals(2, facets.getAvailable());
+        assertEquals(1, facets.getUnavailable());
+        assertEquals(1, facets.getWithRequest());
+        assertEquals(1, facets.getWithoutRequest());
+        assertEquals(List.of(new OwnerFacetDto(1L, 1), new OwnerFacetDto(3L, 1)), facets.getOwners());
+
+        assertEquals(new ItemFacetsDto(0, 0, 0, 0, List.of()),
+                itemService.getSearchItemsWithFacets(" ", null, null).getFacets());
+    }
+
+    @Test
+    void getSimilarItems() {
+        em.createNativeQuery("insert into items (id, name, description, is_available, owner_id) values "
+                + "(10, 'Drill', 'Cordless drill with two batteries and a charger', true, 1), "
+                + "(11, 'Drill 2', 'Cordless drill with two batteries and charger', true, 3), "
+                + "(12, 'Drill 3', 'Cordless drill with two batteries and a charger!', false, 3), "
+                + "(13, 'Drill 4', 'Cordless drill with batteries', true, 3), "
+                + "(14, 'Tent', 'Four person camping tent', true, 3)").executeUpdate();
+
+        List<Long> similar = ids(itemService.getSimilarItems(10L, null));
+        assertEquals(11L, similar.get(0));
+        assertEquals(false, similar.contains(12L));
+        assertEquals(false, similar.contains(14L));
+        assertEquals(List.of(11L), ids(itemService.getSimilarItems(10L, 1)));
+        assertEquals(List.of(), ids(itemService.getSimilarItems(14L, null)));
+        assertThrows(NotFoundException.class, () -> itemService.getSimilarItems(999L, null));
+    }
+
+    @Test
+    void getSuggestions_AvailableItemsOnly() {
+        assertEquals(List.of("name"), itemService.getSuggestions("NA", null));
+        assertEquals(List.of(), itemService.getSuggestions("name2", null));
+        assertEquals(List.of(), itemService.getSuggestions(" ", null));
+    }
+
+    @Test
+    void getSuggestions_FollowsItemChanges() {
+        Item item = itemRepository.findById(1L).orElseThrow();
+        ItemSnapshot previous = ItemSnapshot.of(item);
+        item.setName("Cordless drill");
+        itemNameSuggester.onItemChanged(new ItemChangedEvent(previous, ItemSnapshot.of(item)));
+
+        assertEquals(List.of(), itemService.getSuggestions("name", 5));
+        assertEquals(List.of("Cordless drill"), itemService.getSuggestions("dri", 5));
+
+        itemNameSuggester.onItemChanged(new ItemChangedEvent(ItemSnapshot.of(item), null));
+        assertEquals(List.of(), itemService.getSuggestions("dri", 5));
+    }
+
     @Test
     void addComment_BadUser() {
         assertThrows(NotFoundException.class, () -> itemService.addComment(999L, new Comment(), 1L));
@@ -191,4 +363,8 @@ class ItemServiceImplTest {
         assertEquals(1, comment.getId());
         assertEquals("comment", comment.getText());
     }
+
+    private static List<Long> ids(Collection<ItemDto> items) {
+        return items.stream().map(ItemDto::getId).collect(Collectors.toList());
+    }
 }
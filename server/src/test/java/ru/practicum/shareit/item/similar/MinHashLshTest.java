@@ -0,0 +1,62 @@
+package ru.practicum.shareit.item.similar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinHashLshTest {
+
+    @Test
+    void findsNearDuplicatesOnly() {
+        MinHashLsh lsh = new MinHashLsh();
+        lsh.put(1L, "Cordless drill with two batteries and a charger");
+        lsh.put(2L, "Cordless drill, with two batteries and a charger.");
+        lsh.put(3L, "Cordless drill with two batteries and charger");
+        lsh.put(4L, "Four person camping tent");
+        lsh.put(5L, "");
+
+        List<Long> similar = lsh.similar(1L, 0.3, 10, id -> true);
+        assertEquals(List.of(2L, 3L), similar);
+        assertEquals(List.of(3L), lsh.similar(1L, 0.3, 10, id -> id != 2L));
+        assertEquals(List.of(), lsh.similar(4L, 0.3, 10, id -> true));
+        assertEquals(List.of(), lsh.similar(5L, 0.3, 10, id -> true));
+        assertEquals(4, lsh.size());
+    }
+
+    @Test
+    void findsPairsJustAboveTheThreshold() {
+        MinHashLsh lsh = new MinHashLsh();
+        lsh.put(1L, "Cordless drill with two batteries and a charger");
+        // Jaccard similarity of the shingles is about 0.37
+        lsh.put(2L, "Cordless saw with a charger");
+
+        assertEquals(List.of(2L), lsh.similar(1L, ItemSimilarityIndex.THRESHOLD, 10, id -> true));
+    }
+
+    @Test
+    void putReplacesAndRemoveDeletes() {
+        MinHashLsh lsh = new MinHashLsh();
+        lsh.put(1L, "Cordless drill with two batteries");
+        lsh.put(2L, "Cordless drill with two batteries");
+        lsh.put(2L, "Four person camping tent");
+
+        assertEquals(List.of(), lsh.similar(1L, 0.3, 10, id -> true));
+        lsh.put(3L, "Cordless drill with two batteries");
+        lsh.remove(3L);
+        assertEquals(List.of(), lsh.similar(1L, 0.3, 10, id -> true));
+        assertEquals(2, lsh.size());
+    }
+
+    @Test
+    void signatureSimilarityEstimatesJaccard() {
+        MinHashLsh lsh = new MinHashLsh();
+        lsh.put(1L, "abcdefghijklmnopqrstuvwxyz");
+        lsh.put(2L, "abcdefghijklmnopqrstuvwxyz");
+
+        assertEquals(List.of(2L), lsh.similar(1L, 1.0, 10, id -> true));
+        assertTrue(MinHashLsh.shingles("abcd").containsAll(MinHashLsh.shingles("ABC")));
+    }
+}
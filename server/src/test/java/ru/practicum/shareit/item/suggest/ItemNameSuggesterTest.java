@@ -0,0 +1,74 @@
+package ru.practicum.shareit.item.suggest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemNameSuggesterTest {
+
+    @Test
+    void keysStartAtWordBoundaries() {
+        assertEquals(Set.of("cordless drill", "drill"), ItemNameSuggester.keys(" Cordless  Drill"));
+        assertEquals(Set.of("дрель-шуруповёрт", "шуруповёрт"), ItemNameSuggester.keys("Дрель-шуруповёрт"));
+    }
+
+    @Test
+    void trieRanksByCountThenName() {
+        NameTrie trie = new NameTrie();
+        add(trie, "Drill");
+        add(trie, "Drill press");
+        add(trie, "Cordless Drill");
+        add(trie, "Cordless Drill");
+        add(trie, "Dryer");
+
+        assertEquals(List.of("Cordless Drill", "Drill", "Drill press", "Dryer"), trie.top("dr", 10));
+        assertEquals(List.of("Cordless Drill", "Drill"), trie.top("drill", 2));
+        assertEquals(List.of("Cordless Drill"), trie.top("cord", 10));
+        assertEquals(List.of(), trie.top("drills", 10));
+        assertEquals(List.of(), trie.top("saw", 10));
+    }
+
+    @Test
+    void trieRemoveUndoesAdd() {
+        NameTrie trie = new NameTrie();
+        add(trie, "Drill");
+        add(trie, "Drill");
+        add(trie, "Drill press");
+
+        remove(trie, "Drill");
+        assertEquals(List.of("Drill", "Drill press"), trie.top("dri", 10));
+        remove(trie, "Drill");
+        assertEquals(List.of("Drill press"), trie.top("dri", 10));
+        remove(trie, "Drill press");
+        assertEquals(List.of(), trie.top("", 10));
+        remove(trie, "Saw");
+        assertEquals(List.of(), trie.top("", 10));
+    }
+
+    @Test
+    void trieKeepsTopPerNode() {
+        NameTrie trie = new NameTrie();
+        for (int i = 0; i < 30; i++) {
+            add(trie, "Item " + (char) ('a' + i % 26) + i);
+        }
+        add(trie, "Item popular");
+        add(trie, "Item popular");
+
+        List<String> top = trie.top("item", 20);
+        assertEquals(NameTrie.TOP, top.size());
+        assertEquals("Item popular", top.get(0));
+        assertEquals(List.of("Item popular"), trie.top("pop", 10));
+    }
+
+    private static void add(NameTrie trie, String name) {
+        ItemNameSuggester.keys(name).forEach(key -> trie.add(key, name));
+    }
+
+    private static void remove(NameTrie trie, String name) {
+        ItemNameSuggester.keys(name).forEach(key -> trie.remove(key, name));
+    }
+
+}
@@ -9,6 +9,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestSlice;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.dto.UserDto;
 
@@ -22,6 +23,7 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -118,7 +120,8 @@ class ItemRequestControllerTest {
         ArrayList<ItemRequestDto> itemRequestDtos = new ArrayList<>();
         itemRequestDtos.add(itemRequestDto);
 
-        when(itemRequestService.getFromSize(any(), anyInt(), anyInt())).thenReturn(itemRequestDtos);
+        when(itemRequestService.getFromSize(any(), anyInt(), anyInt(), any()))
+                .thenReturn(new ItemRequestSlice(itemRequestDtos, null));
 
         mvc.perform(get("/requests/all")
                         .content(mapper.writeValueAsString(itemRequestDto))
@@ -133,6 +136,24 @@ class ItemRequestControllerTest {
                 .andReturn();
     }
 
+    @Test
+    void getRequests_AllWithCursor() throws Exception {
+        ArrayList<ItemRequestDto> itemRequestDtos = new ArrayList<>();
+        itemRequestDtos.add(itemRequestDto);
+
+        when(itemRequestService.getFromSize(any(), anyInt(), anyInt(), eq("abc")))
+                .thenReturn(new ItemRequestSlice(itemRequestDtos, "def"));
+
+        mvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", userDto.getId())
+                        .param("size", "1")
+                        .param("cursor", "abc")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ItemRequestController.NEXT_CURSOR_HEADER, "def"))
+                .andExpect(jsonPath("$.*", hasSize(1)));
+    }
+
     @Test
     void getRequestById() throws Exception {
 
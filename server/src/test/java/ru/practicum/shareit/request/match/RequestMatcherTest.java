@@ -0,0 +1,114 @@
+package ru.practicum.shareit.request.match;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlGroup;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.existence.EntityExistence;
+import ru.practicum.shareit.item.dao.ItemRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.request.RequestSuggestion;
+import ru.practicum.shareit.request.dao.RequestRepository;
+import ru.practicum.shareit.request.dao.RequestSuggestionRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
+import ru.practicum.shareit.request.service.RequestFeed;
+import ru.practicum.shareit.user.dao.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+@SqlGroup({
+        @Sql(scripts = "/schema.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD),
+        @Sql(scripts = "/test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD),
+})
+class RequestMatcherTest {
+
+    private final EntityManager em;
+    private final ItemRepository itemRepository;
+    private final RequestRepository requestRepository;
+    private final RequestSuggestionRepository suggestionRepository;
+    private final UserRepository userRepository;
+    private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private RequestMatcher requestMatcher;
+
+    @BeforeEach
+    void setUp() {
+        requestMatcher = new RequestMatcher(itemRepository, requestRepository, suggestionRepository);
+        em.createNativeQuery("insert into items (id, name, description, is_available, owner_id) values "
+                + "(10, 'Дрель', 'Аккумуляторная дрель с зарядкой', true, 3), "
+                + "(11, 'Дрель', 'Аккумуляторная дрель', true, 1), "
+                + "(12, 'Дрель', 'Аккумуляторная дрель, сломана', false, 3), "
+                + "(13, 'Палатка', 'Палатка на четверых', true, 3)").executeUpdate();
+        em.createNativeQuery("insert into requests (id, description, requestor_id, created) values "
+                + "(10, 'Нужна аккумуляторная дрель', 1, '2023-06-27T01:27:54'), "
+                + "(11, 'Ищу палатку для похода', 2, '2023-06-27T01:27:54')").executeUpdate();
+    }
+
+    @Test
+    void stemsIgnoreShortWordsAndEndings() {
+        assertEquals(Set.of("щётк", "обув"), StemIndex.stems("Щётка для обуви"));
+        assertEquals(StemIndex.stems("щёткой"), StemIndex.stems("щётка"));
+        assertEquals(StemIndex.stems("drills"), StemIndex.stems("drill"));
+    }
+
+    @Test
+    void newRequestGetsAvailableItemsOfOtherUsers() {
+        requestMatcher.suggestItems(requestRepository.findById(10L).orElseThrow());
+
+        assertEquals(List.of(10L), itemIds(10L));
+    }
+
+    @Test
+    void newItemPercolatesOpenRequestsOfOtherUsers() {
+        em.createNativeQuery("insert into items (id, name, description, is_available, owner_id) values "
+                + "(14, 'Палатка', 'Туристическая палатка', true, 1), "
+                + "(15, 'Палатка', 'Палатка', true, 2)").executeUpdate();
+
+        requestMatcher.suggestRequests(itemRepository.findById(14L).orElseThrow());
+        requestMatcher.suggestRequests(itemRepository.findById(15L).orElseThrow());
+        requestMatcher.suggestRequests(itemRepository.findById(13L).orElseThrow());
+
+        assertEquals(List.of(13L, 14L), itemIds(11L));
+        assertEquals(List.of(), itemIds(10L));
+    }
+
+    @Test
+    void suggestionsAreReturnedWithRequests() {
+        requestMatcher.suggestItems(requestRepository.findById(10L).orElseThrow());
+        suggestionRepository.save(new RequestSuggestion(10L, 12L));
+        ItemRequestServiceImpl service = new ItemRequestServiceImpl(requestRepository, userRepository, itemRepository,
+                suggestionRepository, requestMatcher, new RequestFeed(requestRepository),
+                new EntityExistence(userRepository, itemRepository, bookingRepository), eventPublisher);
+
+        ItemRequestDto request = service.getRequestById(1L, 10L);
+
+        assertEquals(List.of(10L), ids(request.getSuggestions()));
+    }
+
+    private List<Long> itemIds(Long requestId) {
+        return suggestionRepository.findAllByRequestIdIn(List.of(requestId)).stream()
+                .map(RequestSuggestion::getItemId)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> ids(Collection<ItemDto> items) {
+        return items.stream().map(ItemDto::getId).collect(Collectors.toList());
+    }
+}
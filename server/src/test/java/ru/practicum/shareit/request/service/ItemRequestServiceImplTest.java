@@ -1,26 +1,38 @@
 package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dao.BookingRepository;
+import ru.practicum.shareit.exceptions.InvalidDataException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.existence.EntityExistence;
 import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.dao.RequestRepository;
+import ru.practicum.shareit.request.dao.RequestSuggestionRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestSlice;
+import ru.practicum.shareit.request.match.RequestMatcher;
 import ru.practicum.shareit.user.dao.UserRepository;
 
 import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
@@ -31,13 +43,21 @@ class ItemRequestServiceImplTest {
 
     private final EntityManager em;
     private ItemRequestService itemRequestService;
+    private RequestFeed requestFeed;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
     private final RequestRepository requestRepository;
+    private final RequestSuggestionRepository suggestionRepository;
+    private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @BeforeEach
     public void setUp() {
-        itemRequestService = new ItemRequestServiceImpl(requestRepository, userRepository, itemRepository);
+        requestFeed = new RequestFeed(requestRepository);
+        requestFeed.reload();
+        itemRequestService = new ItemRequestServiceImpl(requestRepository, userRepository, itemRepository,
+                suggestionRepository, new RequestMatcher(itemRepository, requestRepository, suggestionRepository),
+                requestFeed, new EntityExistence(userRepository, itemRepository, bookingRepository), eventPublisher);
     }
 
     @Test
@@ -61,7 +81,7 @@ class ItemRequestServiceImplTest {
     @Test
     void getFromSize() {
 
-        List<ItemRequestDto> itemRequestDtos = itemRequestService.getFromSize(1L, 10, 10);
+        List<ItemRequestDto> itemRequestDtos = itemRequestService.getFromSize(1L, 10, 10, null).getRequests();
         assertEquals(0, itemRequestDtos.size());
 
         itemRequestService.add(new ItemRequestDto(1L,
@@ -70,7 +90,7 @@ class ItemRequestServiceImplTest {
                 LocalDateTime.now(),
                 null), 1L);
 
-        assertEquals(itemRequestService.getFromSize(2L, 10, 10).size(), itemRequestDtos.size());
+        assertEquals(itemRequestService.getFromSize(2L, 10, 10, null).getRequests().size(), itemRequestDtos.size());
 
 
     }
@@ -78,7 +98,7 @@ class ItemRequestServiceImplTest {
     @Test
     void getFromSize_BadUser() {
         assertThrows(NotFoundException.class,
-                () -> itemRequestService.getFromSize(99999L, 100, 100));
+                () -> itemRequestService.getFromSize(99999L, 100, 100, null));
     }
 
     @Test
@@ -111,4 +131,91 @@ class ItemRequestServiceImplTest {
         assertEquals(itemRequestService.getAllRequests(1L).size(), itemRequestDtos.size());
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void getFromSize_ItemsOfEachRequestWithConstantStatements() {
+        for (long id = 100; id < 105; id++) {
+            em.createNativeQuery("insert into requests (id, description, requestor_id, created) values (?, ?, 1, ?)")
+                    .setParameter(1, id)
+                    .setParameter(2, "request " + id)
+                    .setParameter(3, LocalDateTime.now().minusDays(1).plusMinutes(id))
+                    .executeUpdate();
+            em.createNativeQuery("insert into items (id, name, description, is_available, owner_id, request_id) "
+                            + "values (?, 'item', 'item', true, 3, ?), (?, 'item', 'item', true, 3, ?)")
+                    .setParameter(1, id)
+                    .setParameter(2, id)
+                    .setParameter(3, id + 100)
+                    .setParameter(4, id)
+                    .executeUpdate();
+        }
+        requestFeed.reload();
+        itemRequestService.getFromSize(2L, 0, 1, null);
+        em.clear();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        statistics.clear();
+        List<ItemRequestDto> small = itemRequestService.getFromSize(2L, 0, 2, null).getRequests();
+        long smallPageStatements = statistics.getPrepareStatementCount();
+        em.clear();
+        statistics.clear();
+        List<ItemRequestDto> large = itemRequestService.getFromSize(2L, 0, 5, null).getRequests();
+        long largePageStatements = statistics.getPrepareStatementCount();
+        statistics.setStatisticsEnabled(false);
+
+        assertEquals(2, small.size());
+        assertEquals(5, large.size());
+        assertEquals(smallPageStatements, largePageStatements);
+        for (ItemRequestDto request : large) {
+            assertEquals(2, request.getItems().size());
+            request.getItems().forEach(item -> assertEquals(request.getId(), item.getRequestId()));
+        }
+    }
+
+    @Test
+    void getAllRequests_ItemsOfEachRequest() {
+        em.createNativeQuery("insert into requests (id, description, requestor_id, created) "
+                + "values (105, 'no items yet', 1, now())").executeUpdate();
+
+        List<ItemRequestDto> requests = itemRequestService.getAllRequests(1L);
+
+        for (ItemRequestDto request : requests) {
+            request.getItems().forEach(item -> assertEquals(request.getId(), item.getRequestId()));
+        }
+        assertEquals(2, requests.stream().mapToInt(request -> request.getItems().size()).sum());
+    }
+
+    @Test
+    void getFromSize_CursorWalksOtherUsersRequestsInCreationOrder() {
+        LocalDateTime created = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.MICROS);
+        for (long id = 100; id < 105; id++) {
+            em.createNativeQuery("insert into requests (id, description, requestor_id, created) values (?, ?, ?, ?)")
+                    .setParameter(1, id)
+                    .setParameter(2, "request " + id)
+                    .setParameter(3, id == 102 ? 2L : 3L)
+                    .setParameter(4, id == 104 ? created : created.plusMinutes(id))
+                    .executeUpdate();
+        }
+        requestFeed.reload();
+
+        ItemRequestSlice first = itemRequestService.getFromSize(2L, 0, 2, null);
+        ItemRequestSlice second = itemRequestService.getFromSize(2L, 0, 2, first.getNextCursor());
+        ItemRequestSlice third = itemRequestService.getFromSize(2L, 0, 2, second.getNextCursor());
+
+        assertEquals(List.of(1L, 104L), requestIds(first));
+        assertEquals(List.of(100L, 101L), requestIds(second));
+        assertEquals(List.of(103L), requestIds(third));
+        assertNull(third.getNextCursor());
+        assertEquals(List.of(100L, 101L), requestIds(itemRequestService.getFromSize(2L, 2, 2, null)));
+    }
+
+    @Test
+    void getFromSize_BadCursor() {
+        assertThrows(InvalidDataException.class,
+                () -> itemRequestService.getFromSize(2L, 0, 2, "not a cursor"));
+    }
+
+    private static List<Long> requestIds(ItemRequestSlice slice) {
+        return slice.getRequests().stream().map(ItemRequestDto::getId).collect(Collectors.toList());
+    }
+}
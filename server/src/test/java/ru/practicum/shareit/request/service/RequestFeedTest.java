@@ -0,0 +1,59 @@
+package ru.practicum.shareit.request.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.RequestCursor;
+import ru.practicum.shareit.request.dao.RequestFeedEntry;
+import ru.practicum.shareit.request.dao.RequestRepository;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RequestFeedTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2023, 6, 27, 1, 0);
+
+    private final RequestRepository requestRepository = mock(RequestRepository.class);
+    private final RequestFeed feed = new RequestFeed(requestRepository);
+
+    @Test
+    void requestCommittedDuringAReloadIsKept() {
+        ItemRequest late = new ItemRequest(2L, "late", new User(1L, "Jom", "jame@mail.ru"), CREATED.plusMinutes(1));
+        List<RequestFeedEntry> rows = List.of(row(1L, 1L, CREATED));
+        when(requestRepository.findFeed()).thenAnswer(invocation -> {
+            // committed after the read, so the rows do not have it
+            feed.append(late);
+            return rows;
+        });
+
+        feed.reload();
+
+        assertEquals(List.of(new RequestCursor(CREATED, 1L), RequestCursor.of(late)), feed.page(2L, null, 0, 10));
+    }
+
+    @Test
+    void pagesAreReadWithoutQueries() {
+        List<RequestFeedEntry> rows = List.of(row(1L, 1L, CREATED), row(2L, 2L, CREATED.plusMinutes(1)));
+        when(requestRepository.findFeed()).thenReturn(rows);
+        feed.reload();
+
+        assertEquals(List.of(new RequestCursor(CREATED, 1L)), feed.page(2L, null, 0, 10));
+        assertEquals(List.of(new RequestCursor(CREATED.plusMinutes(1), 2L)), feed.page(1L, null, 0, 10));
+        verify(requestRepository, times(1)).findFeed();
+    }
+
+    private static RequestFeedEntry row(Long id, Long requestorId, LocalDateTime created) {
+        RequestFeedEntry row = mock(RequestFeedEntry.class);
+        when(row.getId()).thenReturn(id);
+        when(row.getRequestorId()).thenReturn(requestorId);
+        when(row.getCreated()).thenReturn(created);
+        return row;
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubscriberTest {
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private final List<SseEmitter.SseEventBuilder> sent = new ArrayList<>();
+    private final SseEmitter emitter = new SseEmitter() {
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.add(builder);
+        }
+    };
+
+    @Test
+    void newerEventForTheSameKeyReplacesThePendingOne() {
+        Subscriber subscriber = new Subscriber(1L, emitter, 2, tasks::add);
+        SseEmitter.SseEventBuilder waiting = SseEmitter.event().data("WAITING");
+        SseEmitter.SseEventBuilder approved = SseEmitter.event().data("APPROVED");
+
+        subscriber.offer("booking-1", waiting);
+        subscriber.offer("booking-1", approved);
+        runTasks();
+
+        assertEquals(List.of(approved), sent);
+        assertEquals(0, subscriber.getDropped());
+    }
+
+    @Test
+    void fullBufferDropsTheOldestEvent() {
+        Subscriber subscriber = new Subscriber(1L, emitter, 2, tasks::add);
+        SseEmitter.SseEventBuilder first = SseEmitter.event().data("1");
+        SseEmitter.SseEventBuilder second = SseEmitter.event().data("2");
+        SseEmitter.SseEventBuilder third = SseEmitter.event().data("3");
+
+        subscriber.offer("request-1", first);
+        subscriber.offer("request-2", second);
+        subscriber.offer("request-3", third);
+        runTasks();
+
+        assertEquals(List.of(second, third), sent);
+        assertEquals(1, subscriber.getDropped());
+    }
+
+    @Test
+    void failedSendClosesTheSubscriber() {
+        SseEmitter failing = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        Subscriber subscriber = new Subscriber(1L, failing, 2, tasks::add);
+
+        subscriber.offer("request-1", SseEmitter.event().data("1"));
+        runTasks();
+        subscriber.offer("request-2", SseEmitter.event().data("2"));
+
+        assertEquals(0, tasks.size());
+    }
+
+    @Test
+    void blockedSendDoesNotHoldBackOtherSubscribers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(1);
+        SseEmitter stuck = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+        };
+        SseEmitter reading = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                delivered.countDown();
+            }
+        };
+        ExecutorService senders = Executors.newCachedThreadPool();
+        try {
+            new Subscriber(1L, stuck, 2, senders).offer("request-1", SseEmitter.event().data("1"));
+            new Subscriber(2L, reading, 2, senders).offer("request-1", SseEmitter.event().data("1"));
+
+            assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            senders.shutdown();
+        }
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+}
@@ -7,21 +7,29 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import ru.practicum.shareit.exceptions.AlreadyExistEmailException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserSlice;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 @WebMvcTest(controllers = UserController.class)
 class UserControllerTest {
@@ -123,8 +131,8 @@ class UserControllerTest {
 
     @Test
     void getListUsers_test() throws Exception {
-        Collection<User> users =  new ArrayList<>();
-        users.add(new User(1L, "Name", "mai@mail.ru"));
+        Collection<UserDto> users =  new ArrayList<>();
+        users.add(new UserDto(1L, "Name", "mai@mail.ru"));
 
         when(userService.getUsers()).thenReturn(users);
 
@@ -150,6 +158,40 @@ class UserControllerTest {
                 .andReturn();
     }
 
+    @Test
+    void getUsersPage_test() throws Exception {
+        when(userService.getUsers(2, "abc")).thenReturn(new UserSlice(List.of(userDto), "def"));
+
+        mvc.perform(get("/users")
+                        .param("size", "2")
+                        .param("cursor", "abc")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(header().string(UserController.NEXT_CURSOR_HEADER, "def"))
+                .andExpect(jsonPath("$[0].id", is(1L), Long.class));
+    }
+
+    @Test
+    void streamUsers_test() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<UserDto> consumer = invocation.getArgument(0);
+            consumer.accept(userDto);
+            consumer.accept(new UserDto(2L, "jane", "jane.doe@mail.com"));
+            return null;
+        }).when(userService).streamUsers(any());
+
+        MvcResult result = mvc.perform(get("/users/stream")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(mapper.writeValueAsString(userDto) + "\n"
+                        + mapper.writeValueAsString(new UserDto(2L, "jane", "jane.doe@mail.com")) + "\n"));
+    }
+
     @Test
     void deleteUser_test() throws Exception {
         mvc.perform(delete("/users/1")
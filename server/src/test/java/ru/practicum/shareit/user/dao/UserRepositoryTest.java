@@ -33,16 +33,10 @@ class UserRepositoryTest {
 
 
     @Test
-    void getByEmail_Test() {
-        User user = new User(1L, "Test", "testemail@mail.com");
-        userRepository.save(user);
-
-        User userByEmail = userRepository.getByEmailContainingIgnoreCase("testemail@mail.com");
-
-        assertEquals(user.getEmail(), userByEmail.getEmail());
-        assertEquals(user.getName(), userByEmail.getName());
-        Assertions.assertNotNull(userByEmail.getId());
+    void emailNormalized_Test() {
+        User user = userRepository.saveAndFlush(new User(null, "Test", "TestEmail@mail.com"));
 
+        assertEquals("testemail@mail.com", user.getEmailNormalized());
     }
 
     @Test
@@ -5,20 +5,34 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dao.BookingRepository;
 import ru.practicum.shareit.exceptions.AlreadyExistEmailException;
+import ru.practicum.shareit.exceptions.InvalidDataException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.existence.EntityExistence;
+import ru.practicum.shareit.item.dao.ItemRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.dao.UserRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoPatch;
+import ru.practicum.shareit.user.dto.UserSlice;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 @Transactional
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
@@ -29,10 +43,12 @@ class UserServiceImplTest {
     private final EntityManager em;
     private UserService service;
     private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
 
     @BeforeEach
     public void setUp() {
-        service = new UserServiceImpl(userRepository);
+        service = new UserServiceImpl(userRepository, new EntityExistence(userRepository, itemRepository, bookingRepository));
     }
 
     @Test
@@ -58,6 +74,25 @@ class UserServiceImplTest {
 
     }
 
+    @Test
+    void saveUser_emailUsedInAnotherCase() {
+        UserDto userDto = new UserDto(null, "Jame", "JAMEAWER@mail.ru");
+
+        assertThrows(AlreadyExistEmailException.class, () -> service.createUser(userDto));
+    }
+
+    @Test
+    void saveUser_otherViolationIsNotAnEmailConflict() {
+        UserRepository users = mock(UserRepository.class);
+        when(users.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("fk",
+                new SQLException("Referential integrity constraint violation: FK_SOMETHING", "23506")));
+        UserService failing = new UserServiceImpl(users,
+                new EntityExistence(userRepository, itemRepository, bookingRepository));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> failing.createUser(new UserDto(null, "Jame", "new@mail.ru")));
+    }
+
     @Test
     void userUpdate() {
 
@@ -81,6 +116,19 @@ class UserServiceImplTest {
 
     }
 
+    @Test
+    void userUpdate_EmailUsedInAnotherCase() {
+        assertThrows(AlreadyExistEmailException.class, () ->
+                service.userUpdate(new UserDtoPatch(null, "Jom", "JameAwer@Mail.ru"), 1L));
+    }
+
+    @Test
+    void userUpdate_EmailIsSubstringOfAnother() {
+        service.userUpdate(new UserDtoPatch(null, null, "Awer@mail.ru"), 1L);
+
+        assertEquals("Awer@mail.ru", service.getUserById(1L).getEmail());
+    }
+
     @Test
     void userUpdate_EmailAlreadyUsed_isOk() {
 
@@ -123,6 +171,28 @@ class UserServiceImplTest {
         assertEquals(service.getUsers().size(), 3);
     }
 
+    @Test
+    void getUsersPage() {
+        UserSlice first = service.getUsers(2, null);
+        UserSlice second = service.getUsers(2, first.getNextCursor());
+
+        assertEquals(List.of(1L, 2L), ids(first.getUsers()));
+        assertEquals(List.of(3L), ids(second.getUsers()));
+        assertNull(second.getNextCursor());
+        assertThrows(InvalidDataException.class, () -> service.getUsers(2, "not a cursor"));
+        assertThrows(InvalidDataException.class, () -> service.getUsers(0, null));
+    }
+
+    @Test
+    void streamUsers() {
+        List<UserDto> users = new ArrayList<>();
+
+        service.streamUsers(users::add);
+
+        assertEquals(List.of(1L, 2L, 3L), ids(users));
+        assertEquals("jameAwer@mail.ru", users.get(1).getEmail());
+    }
+
     @Test
     void deleteUser() {
         assertEquals(service.getUsers().size(), 3);
@@ -133,4 +203,8 @@ class UserServiceImplTest {
     void deleteUser_BadId() {
         assertThrows(NotFoundException.class, () -> service.deleteUser(999999L));
     }
-}
\ No newline at end of file
+
+    private static List<Long> ids(List<UserDto> users) {
+        return users.stream().map(UserDto::getId).collect(Collectors.toList());
+    }
+}